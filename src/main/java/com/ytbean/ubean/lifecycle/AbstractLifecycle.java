@@ -15,34 +15,129 @@
  */
 package com.ytbean.ubean.lifecycle;
 
-import java.util.concurrent.CopyOnWriteArraySet;
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * The skeleton implementation of lifecycle
+ * <p/>
+ * <p>The state is changed with compare-and-set, so {@link #state()} is a plain volatile read. An operation first
+ * moves the component into a transitional state (e.g. {@code STARTING}), which makes it the owner of the component
+ * until it reaches the target state. Operations invoked concurrently from other threads wait for the ongoing
+ * transition to settle before checking whether they are legal, exactly like they used to wait on the monitor.</p>
+ * <p/>
+ * <p>Listeners are notified on the thread changing the state unless a listener executor is set, in which case the
+ * transitions no longer wait on them. Either way every notification is timed, see {@link #listenerStats()}, and the
+ * exceptions thrown by listeners are logged.</p>
  *
  * @author ytbean
  * @date 2022/2/25 18:42
  */
 public abstract class AbstractLifecycle implements Lifecycle {
 
-    private final CopyOnWriteArraySet<LifeStateListener> listeners = new CopyOnWriteArraySet<>();
+    private static final AtomicReferenceFieldUpdater<AbstractLifecycle, LifeState> STATE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractLifecycle.class, LifeState.class, "state");
+
+    private static final AtomicIntegerFieldUpdater<AbstractLifecycle> WAITERS_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractLifecycle.class, "waiters");
+
+    private static final AtomicIntegerFieldUpdater<AbstractLifecycle> DISPATCHING_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractLifecycle.class, "dispatching");
+
+    private static final AtomicReferenceFieldUpdater<AbstractLifecycle, LifecycleGuard> GUARD_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(AbstractLifecycle.class, LifecycleGuard.class, "guard");
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(AbstractLifecycle.class);
+
+    private static final EnumSet<LifeState> TRANSITIONAL = EnumSet.of(LifeState.INITIALIZING, LifeState.STARTING,
+            LifeState.WARMING, LifeState.SUSPENDING, LifeState.RESUMING, LifeState.DESTROYING);
+
+    private static final EnumSet<LifeState> INITIALIZABLE = EnumSet.of(LifeState.NEW, LifeState.DESTROYED);
+
+    private static final EnumSet<LifeState> STARTABLE = EnumSet.of(LifeState.INITIALIZED);
+
+    private static final EnumSet<LifeState> SUSPENDABLE = EnumSet.of(LifeState.STARTED);
+
+    private static final EnumSet<LifeState> RESUMABLE = EnumSet.of(LifeState.SUSPENDED);
+
+    private static final EnumSet<LifeState> DESTROYABLE = EnumSet.allOf(LifeState.class);
+
+    private final ListenerRegistry listeners = new ListenerRegistry();
+
+    /**
+     * waiters of a settled state park on this lock, only taken when {@link #waiters} is not zero
+     */
+    private final Object settleLock = new Object();
 
     private volatile LifeState state = LifeState.NEW;
 
+    /**
+     * the thread running the ongoing transition, lets it re-enter the lifecycle without waiting for itself
+     */
+    private volatile Thread owner;
+
+    private volatile int waiters;
+
+    private volatile Executor asyncExecutor = ForkJoinPool.commonPool();
+
+    /**
+     * delivers the state changes to the listeners when set, see {@link #setListenerExecutor(Executor)}
+     */
+    private volatile Executor listenerExecutor;
+
+    private volatile ConcurrentLinkedQueue<LifeState[]> pendingEvents;
+
+    /**
+     * the number of changes queued since the last drain started, the drain is scheduled when it leaves zero
+     */
+    private volatile int dispatching;
+
+    /**
+     * created by the first call to {@link #guard()}
+     */
+    private volatile LifecycleGuard guard;
+
+    private volatile long drainTimeoutNanos = TimeUnit.SECONDS.toNanos(30);
+
+    private volatile long slowListenerNanos = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ConcurrentHashMap<LifeStateListener, ListenerStats> listenerStats = new ConcurrentHashMap<>();
+
+    /**
+     * the futures of {@link #onState(LifeState)}, created on the first call
+     */
+    private volatile LifeStateFutures stateFutures;
+
 
     @Override
-    public final synchronized void init() throws LifecycleException {
-        if (state != LifeState.NEW && state != LifeState.DESTROYED) {
-            throw illegalStateException();
-        }
-        onStateChanged(LifeState.INITIALIZING);
+    public final void init() throws LifecycleException {
+        begin(INITIALIZABLE, LifeState.INITIALIZING);
+        LifecycleProfiler profiler = LifecycleProfiler.active;
+        long started = profiler == null ? 0L : System.nanoTime();
         try {
             init0();
         } catch (Throwable cause) {
-            onStateChanged(LifeState.SICK);
+            profile(profiler, LifeState.INITIALIZING, started, true);
+            complete(LifeState.INITIALIZING, LifeState.SICK);
             throw LifecycleException.wrap(cause);
         }
-        onStateChanged(LifeState.INITIALIZED);
+        profile(profiler, LifeState.INITIALIZING, started, false);
+        complete(LifeState.INITIALIZING, LifeState.INITIALIZED);
     }
 
 
@@ -55,21 +150,42 @@ public abstract class AbstractLifecycle implements Lifecycle {
 
 
     @Override
-    public final synchronized void start() throws LifecycleException {
-        if (state == LifeState.NEW || state == LifeState.DESTROYED) {
-            init();
-        }
-        if (state != LifeState.INITIALIZED) {
-            throw illegalStateException();
+    public final void start() throws LifecycleException {
+        if (INITIALIZABLE.contains(awaitSettled())) {
+            try {
+                init();
+            } catch (LifecycleException e) {
+                //lost the race against a concurrent init, go on if it succeeded
+                if (state != LifeState.INITIALIZED) {
+                    throw e;
+                }
+            }
         }
-        onStateChanged(LifeState.STARTING);
+        begin(STARTABLE, LifeState.STARTING);
+        LifecycleProfiler profiler = LifecycleProfiler.active;
+        long started = profiler == null ? 0L : System.nanoTime();
         try {
             start0();
         } catch (Throwable cause) {
-            onStateChanged(LifeState.SICK);
+            profile(profiler, LifeState.STARTING, started, true);
+            complete(LifeState.STARTING, LifeState.SICK);
             throw LifecycleException.wrap(cause);
         }
-        onStateChanged(LifeState.STARTED);
+        profile(profiler, LifeState.STARTING, started, false);
+        if (warmupRequired() && advance(LifeState.STARTING, LifeState.WARMING)) {
+            started = profiler == null ? 0L : System.nanoTime();
+            try {
+                warmup0();
+            } catch (Throwable cause) {
+                profile(profiler, LifeState.WARMING, started, true);
+                complete(LifeState.WARMING, LifeState.SICK);
+                throw LifecycleException.wrap(cause);
+            }
+            profile(profiler, LifeState.WARMING, started, false);
+            complete(LifeState.WARMING, LifeState.STARTED);
+            return;
+        }
+        complete(LifeState.STARTING, LifeState.STARTED);
     }
 
     /**
@@ -79,20 +195,40 @@ public abstract class AbstractLifecycle implements Lifecycle {
      */
     protected abstract void start0() throws LifecycleException;
 
-    @Override
-    public final synchronized void suspend() throws LifecycleException {
-        if (state != LifeState.STARTED) {
-            throw illegalStateException();
-        }
+    /**
+     * Whether the component goes through {@code WARMING} after {@code start0}, so that it only becomes
+     * {@code STARTED}, and admits traffic, once warmed up
+     *
+     * @return false unless overridden
+     */
+    protected boolean warmupRequired() {
+        return false;
+    }
+
+    /**
+     * Internal warm-up logic, typically replaying a workload with a {@link WarmUp} until the code is compiled
+     *
+     * @throws LifecycleException if fails to warm up, the component then becomes {@code SICK}
+     */
+    protected void warmup0() throws LifecycleException {
+        //implemented by subclass
+    }
 
-        onStateChanged(LifeState.SUSPENDING);
+    @Override
+    public final void suspend() throws LifecycleException {
+        begin(SUSPENDABLE, LifeState.SUSPENDING);
+        drainInFlight();
+        LifecycleProfiler profiler = LifecycleProfiler.active;
+        long started = profiler == null ? 0L : System.nanoTime();
         try {
             suspend0();
         } catch (Throwable cause) {
-            onStateChanged(LifeState.SICK);
+            profile(profiler, LifeState.SUSPENDING, started, true);
+            complete(LifeState.SUSPENDING, LifeState.SICK);
             throw LifecycleException.wrap(cause);
         }
-        onStateChanged(LifeState.SUSPENDED);
+        profile(profiler, LifeState.SUSPENDING, started, false);
+        complete(LifeState.SUSPENDING, LifeState.SUSPENDED);
     }
 
     /**
@@ -103,20 +239,19 @@ public abstract class AbstractLifecycle implements Lifecycle {
     protected abstract void suspend0() throws LifecycleException;
 
     @Override
-    public final synchronized void resume() throws LifecycleException {
-
-        if (state != LifeState.SUSPENDED) {
-            throw illegalStateException();
-        }
-
-        onStateChanged(LifeState.RESUMING);
+    public final void resume() throws LifecycleException {
+        begin(RESUMABLE, LifeState.RESUMING);
+        LifecycleProfiler profiler = LifecycleProfiler.active;
+        long started = profiler == null ? 0L : System.nanoTime();
         try {
             resume0();
         } catch (Throwable cause) {
-            onStateChanged(LifeState.SICK);
+            profile(profiler, LifeState.RESUMING, started, true);
+            complete(LifeState.RESUMING, LifeState.SICK);
             throw LifecycleException.wrap(cause);
         }
-        onStateChanged(LifeState.STARTED);
+        profile(profiler, LifeState.RESUMING, started, false);
+        complete(LifeState.RESUMING, LifeState.STARTED);
     }
 
     /**
@@ -127,15 +262,20 @@ public abstract class AbstractLifecycle implements Lifecycle {
     protected abstract void resume0() throws LifecycleException;
 
     @Override
-    public final synchronized void destroy() throws LifecycleException {
-        onStateChanged(LifeState.DESTROYING);
+    public final void destroy() throws LifecycleException {
+        begin(DESTROYABLE, LifeState.DESTROYING);
+        drainInFlight();
+        LifecycleProfiler profiler = LifecycleProfiler.active;
+        long started = profiler == null ? 0L : System.nanoTime();
         try {
             destroy0();
         } catch (Throwable cause) {
-            onStateChanged(LifeState.SICK);
+            profile(profiler, LifeState.DESTROYING, started, true);
+            complete(LifeState.DESTROYING, LifeState.SICK);
             throw LifecycleException.wrap(cause);
         }
-        onStateChanged(LifeState.DESTROYED);
+        profile(profiler, LifeState.DESTROYING, started, false);
+        complete(LifeState.DESTROYING, LifeState.DESTROYED);
     }
 
     /**
@@ -145,6 +285,118 @@ public abstract class AbstractLifecycle implements Lifecycle {
      */
     protected abstract void destroy0() throws LifecycleException;
 
+    /**
+     * set the executor running the operations invoked without an explicit executor, e.g. {@link #startAsync()}
+     *
+     * @param asyncExecutor the executor
+     */
+    public final void setAsyncExecutor(Executor asyncExecutor) {
+        if (asyncExecutor == null) {
+            throw new NullPointerException("asyncExecutor");
+        }
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    @Override
+    public CompletableFuture<LifeState> initAsync() {
+        return initAsync(asyncExecutor);
+    }
+
+    @Override
+    public CompletableFuture<LifeState> startAsync() {
+        return startAsync(asyncExecutor);
+    }
+
+    @Override
+    public CompletableFuture<LifeState> suspendAsync() {
+        return suspendAsync(asyncExecutor);
+    }
+
+    @Override
+    public CompletableFuture<LifeState> resumeAsync() {
+        return resumeAsync(asyncExecutor);
+    }
+
+    @Override
+    public CompletableFuture<LifeState> destroyAsync() {
+        return destroyAsync(asyncExecutor);
+    }
+
+    /**
+     * get the guard admitting business calls while this lifecycle is {@code STARTED}. Once a guard exists,
+     * {@link #suspend()} and {@link #destroy()} wait for the calls in flight to exit, up to the drain timeout, before
+     * running {@code suspend0} or {@code destroy0}
+     *
+     * @return the guard
+     */
+    public final LifecycleGuard guard() {
+        LifecycleGuard current = guard;
+        if (current == null) {
+            GUARD_UPDATER.compareAndSet(this, null, new LifecycleGuard(this));
+            current = guard;
+        }
+        return current;
+    }
+
+    /**
+     * set how long {@link #suspend()} and {@link #destroy()} wait for the calls in flight before going on anyway
+     *
+     * @param timeout the timeout
+     * @param unit    the unit of the timeout
+     */
+    public final void setDrainTimeout(long timeout, TimeUnit unit) {
+        this.drainTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * get how long {@link #suspend()} and {@link #destroy()} wait for the work in flight
+     *
+     * @param unit the unit of the timeout
+     * @return the timeout
+     */
+    protected final long drainTimeout(TimeUnit unit) {
+        return unit.convert(drainTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * deliver the state changes to the listeners on the given executor instead of the thread changing the state,
+     * so transitions never wait on listeners. The changes of one component are still delivered one at a time and in
+     * order. Meant to be set before the component is used
+     *
+     * @param listenerExecutor the executor, null to go back to delivering on the thread changing the state
+     */
+    public final void setListenerExecutor(Executor listenerExecutor) {
+        if (listenerExecutor != null && pendingEvents == null) {
+            synchronized (settleLock) {
+                if (pendingEvents == null) {
+                    pendingEvents = new ConcurrentLinkedQueue<>();
+                }
+            }
+        }
+        this.listenerExecutor = listenerExecutor;
+    }
+
+    /**
+     * set the duration above which a listener notification is logged and counted as slow
+     *
+     * @param threshold the threshold
+     * @param unit      the unit of the threshold
+     */
+    public final void setSlowListenerThreshold(long threshold, TimeUnit unit) {
+        this.slowListenerNanos = unit.toNanos(threshold);
+    }
+
+    /**
+     * get the timing of the notifications delivered to each listener, the slowest listener first
+     *
+     * @return the stats of the listeners notified at least once
+     */
+    public final List<ListenerStats> listenerStats() {
+        List<ListenerStats> stats = new ArrayList<>(listenerStats.values());
+        stats.sort(Comparator.comparingLong((ListenerStats stat) -> stat.maxTime(TimeUnit.NANOSECONDS)).reversed());
+        return stats;
+    }
+
     /**
      * add a life state listener
      *
@@ -152,33 +404,237 @@ public abstract class AbstractLifecycle implements Lifecycle {
      */
     @Override
     public final void addLifeStateListener(LifeStateListener listener) {
-        listeners.add(listener);
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        listeners.add(listener, ListenerRegistry.ALL_STATES, ListenerRegistry.ALL_STATES);
+    }
+
+    /**
+     * add a life state listener only notified when entering one of the given states
+     *
+     * @param listener  the listener
+     * @param newStates the states of interest
+     */
+    public final void addLifeStateListener(LifeStateListener listener, Set<LifeState> newStates) {
+        addLifeStateListener(listener, EnumSet.allOf(LifeState.class), newStates);
     }
 
     /**
-     * get current state
+     * add a life state listener only notified of the given transition
+     *
+     * @param listener the listener
+     * @param oldState the state left
+     * @param newState the state entered
+     */
+    public final void addLifeStateListener(LifeStateListener listener, LifeState oldState, LifeState newState) {
+        addLifeStateListener(listener, EnumSet.of(oldState), EnumSet.of(newState));
+    }
+
+    /**
+     * add a life state listener only notified of the transitions from one of {@code oldStates} to one of
+     * {@code newStates}. Other state changes don't visit the listener at all
+     *
+     * @param listener  the listener
+     * @param oldStates the states left
+     * @param newStates the states entered
+     */
+    public final void addLifeStateListener(LifeStateListener listener, Set<LifeState> oldStates,
+                                           Set<LifeState> newStates) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        listeners.add(listener, ListenerRegistry.mask(oldStates), ListenerRegistry.mask(newStates));
+    }
+
+    /**
+     * get current state, never blocks
      *
      * @return the state
      */
     @Override
-    public final synchronized LifeState state() {
+    public final LifeState state() {
         return state;
     }
 
-    private void onStateChanged(final LifeState newState) {
-        final LifeState oldState = state;
-        state = newState;
-        listeners.forEach(listener -> {
+    @Override
+    public final boolean awaitState(LifeState target, long timeout, TimeUnit unit) throws InterruptedException {
+        if (state == target) {
+            return true;
+        }
+        return stateFutures().await(this, target, timeout, unit);
+    }
+
+    @Override
+    public final CompletableFuture<LifeState> onState(LifeState target) {
+        if (state == target) {
+            return CompletableFuture.completedFuture(target);
+        }
+        return stateFutures().onState(this, target);
+    }
+
+    private LifeStateFutures stateFutures() {
+        LifeStateFutures futures = stateFutures;
+        if (futures == null) {
+            synchronized (settleLock) {
+                if ((futures = stateFutures) == null) {
+                    stateFutures = futures = new LifeStateFutures();
+                }
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * move from one of the {@code legal} states to the {@code transitional} one, after waiting for a transition
+     * run by another thread to settle
+     */
+    private void begin(EnumSet<LifeState> legal, LifeState transitional) throws LifecycleException {
+        while (true) {
+            LifeState current = awaitSettled();
+            if (!legal.contains(current)) {
+                throw illegalStateException(current);
+            }
+            if (STATE_UPDATER.compareAndSet(this, current, transitional)) {
+                owner = Thread.currentThread();
+                onStateChanged(current, transitional);
+                return;
+            }
+        }
+    }
+
+    /**
+     * leave the {@code transitional} state owned by the current thread, unless a re-entrant call (e.g. a destroy
+     * from within {@code init0}) already moved the component elsewhere
+     */
+    private void complete(LifeState transitional, LifeState target) {
+        if (owner == Thread.currentThread()) {
+            owner = null;
+        }
+        if (STATE_UPDATER.compareAndSet(this, transitional, target)) {
+            onStateChanged(transitional, target);
+        }
+        if (waiters != 0) {
+            synchronized (settleLock) {
+                settleLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * move from a transitional state to the next one, keeping the ownership of the component
+     */
+    private boolean advance(LifeState transitional, LifeState next) {
+        if (STATE_UPDATER.compareAndSet(this, transitional, next)) {
+            onStateChanged(transitional, next);
+            return true;
+        }
+        return false;
+    }
+
+    private LifeState awaitSettled() {
+        LifeState current = state;
+        if (!TRANSITIONAL.contains(current) || owner == Thread.currentThread()) {
+            return current;
+        }
+        boolean interrupted = false;
+        WAITERS_UPDATER.incrementAndGet(this);
+        try {
+            synchronized (settleLock) {
+                while (TRANSITIONAL.contains(current = state) && owner != Thread.currentThread()) {
+                    try {
+                        settleLock.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        } finally {
+            WAITERS_UPDATER.decrementAndGet(this);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return current;
+    }
+
+    private void onStateChanged(final LifeState oldState, final LifeState newState) {
+        Executor executor = listenerExecutor;
+        if (executor == null) {
+            notifyListeners(oldState, newState);
+        } else if (listeners.subscriptions(newState).length != 0) {
+            pendingEvents.offer(new LifeState[]{oldState, newState});
+            //only the thread moving the counter away from zero schedules a drain, which keeps the delivery ordered
+            if (DISPATCHING_UPDATER.getAndIncrement(this) == 0) {
+                try {
+                    executor.execute(this::drainEvents);
+                } catch (RejectedExecutionException e) {
+                    drainEvents();
+                }
+            }
+        }
+        LifeStateFutures futures = stateFutures;
+        if (futures != null) {
+            futures.complete(newState);
+        }
+    }
+
+    /**
+     * wait for the calls admitted by the guard to exit, the component having just left {@code STARTED}
+     */
+    private void drainInFlight() {
+        LifecycleGuard current = guard;
+        if (current != null && !current.awaitDrained(drainTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            logger.warn("{} still has {} calls in flight after {}ms, going on", toString(), current.inFlight(),
+                    TimeUnit.NANOSECONDS.toMillis(drainTimeoutNanos));
+        }
+    }
+
+    private void profile(LifecycleProfiler profiler, LifeState phase, long started, boolean failed) {
+        if (profiler != null) {
+            profiler.record(this, phase, started, System.nanoTime(), failed);
+        }
+    }
+
+    private void drainEvents() {
+        int missed = 1;
+        do {
+            LifeState[] event;
+            while ((event = pendingEvents.poll()) != null) {
+                notifyListeners(event[0], event[1]);
+            }
+            missed = DISPATCHING_UPDATER.addAndGet(this, -missed);
+        } while (missed != 0);
+    }
+
+    private void notifyListeners(LifeState oldState, LifeState newState) {
+        long threshold = slowListenerNanos;
+        for (ListenerRegistry.Subscription subscription : listeners.subscriptions(newState)) {
+            if (!subscription.accepts(oldState)) {
+                continue;
+            }
+            LifeStateListener listener = subscription.listener;
+            Exception failure = null;
+            long started = System.nanoTime();
             try {
                 listener.onStateChanged(oldState, newState);
             } catch (Exception e) {
-//                logger.error("listener[{}] of {} cause exception, {}->{}", listener.toString(), toString(), oldState,
-//                        newState, e);
+                failure = e;
             }
-        });
+            long elapsed = System.nanoTime() - started;
+            listenerStats.computeIfAbsent(listener, ListenerStats::new)
+                    .record(elapsed, failure != null, elapsed > threshold);
+            if (failure != null) {
+                logger.error("listener[{}] of {} cause exception, {}->{}", listener.toString(), toString(), oldState,
+                        newState, failure);
+            } else if (elapsed > threshold) {
+                logger.warn("listener[{}] of {} took {}us, {}->{}", listener.toString(), toString(),
+                        TimeUnit.NANOSECONDS.toMicros(elapsed), oldState, newState);
+            }
+        }
     }
 
-    private LifecycleException illegalStateException() {
-        return new LifecycleException("Illegal state " + state.name());
+    private LifecycleException illegalStateException(LifeState current) {
+        return new LifecycleException("Illegal state " + current.name());
     }
 }
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The class BulkResult, the aggregated outcome of an operation applied by {@link Lifecycles} to many components
+ *
+ * @author ytbean
+ * @date 2026/10/19 21:00
+ */
+public final class BulkResult {
+
+    static final BulkResult EMPTY = new BulkResult(0, 0, Collections.emptyMap());
+
+    private final int succeeded;
+
+    private final int skipped;
+
+    private final Map<Lifecycle, LifecycleException> failures;
+
+    BulkResult(int succeeded, int skipped, Map<Lifecycle, LifecycleException> failures) {
+        this.succeeded = succeeded;
+        this.skipped = skipped;
+        this.failures = failures;
+    }
+
+    static BulkResult merge(BulkResult left, BulkResult right) {
+        Map<Lifecycle, LifecycleException> failures;
+        if (right.failures.isEmpty()) {
+            failures = left.failures;
+        } else if (left.failures.isEmpty()) {
+            failures = right.failures;
+        } else {
+            failures = new LinkedHashMap<>(left.failures);
+            failures.putAll(right.failures);
+        }
+        return new BulkResult(left.succeeded + right.succeeded, left.skipped + right.skipped, failures);
+    }
+
+    /**
+     * get the number of components the operation succeeded on
+     *
+     * @return the number of components
+     */
+    public int succeeded() {
+        return succeeded;
+    }
+
+    /**
+     * get the number of components left untouched since they were not selected, e.g. not started when suspending
+     *
+     * @return the number of components
+     */
+    public int skipped() {
+        return skipped;
+    }
+
+    /**
+     * get the components the operation failed on, in the order of the collection
+     *
+     * @return the failures
+     */
+    public Map<Lifecycle, LifecycleException> failures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public boolean isClean() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult{succeeded=" + succeeded + ", skipped=" + skipped + ", failed=" + failures.size() + '}';
+    }
+}
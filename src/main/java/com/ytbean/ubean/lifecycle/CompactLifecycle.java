@@ -0,0 +1,317 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * The skeleton implementation of lifecycle for components created by the hundred thousand, e.g. one per session.
+ * <p/>
+ * <p>An instance only carries the ordinal of its state and a reference to its listeners, created by the first
+ * listener added, so an instance without listeners costs a few bytes.</p>
+ * <p/>
+ * <p>Unlike {@link AbstractLifecycle}, an operation invoked while another thread runs a transition does not wait
+ * for it to settle and fails with an illegal state instead, and the listeners are always notified on the thread
+ * changing the state. The thread running a transition may still re-enter, e.g. destroy the component from
+ * {@code start0}.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 20:30
+ */
+public abstract class CompactLifecycle implements Lifecycle {
+
+    private static final AtomicIntegerFieldUpdater<CompactLifecycle> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(CompactLifecycle.class, "state");
+
+    private static final AtomicReferenceFieldUpdater<CompactLifecycle, ListenerRegistry> LISTENERS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(CompactLifecycle.class, ListenerRegistry.class, "listeners");
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(CompactLifecycle.class);
+
+    private static final LifeState[] STATES = LifeState.values();
+
+    private static final long INITIALIZABLE = ListenerRegistry.mask(EnumSet.of(LifeState.NEW, LifeState.DESTROYED));
+
+    private static final long STARTABLE = ListenerRegistry.mask(EnumSet.of(LifeState.INITIALIZED));
+
+    private static final long SUSPENDABLE = ListenerRegistry.mask(EnumSet.of(LifeState.STARTED));
+
+    private static final long RESUMABLE = ListenerRegistry.mask(EnumSet.of(LifeState.SUSPENDED));
+
+    private static final long DESTROYABLE = ListenerRegistry.ALL_STATES;
+
+    private static final long TRANSITIONAL = ListenerRegistry.mask(EnumSet.of(LifeState.INITIALIZING,
+            LifeState.STARTING, LifeState.WARMING, LifeState.SUSPENDING, LifeState.RESUMING, LifeState.DESTROYING));
+
+    /**
+     * the components whose transition the current thread is running, innermost last. Kept per thread rather than
+     * per instance, a thread rarely runs more than one or two at once
+     */
+    private static final ThreadLocal<List<CompactLifecycle>> RUNNING = ThreadLocal.withInitial(ArrayList::new);
+
+    private volatile int state = LifeState.NEW.ordinal();
+
+    private volatile ListenerRegistry listeners;
+
+    @Override
+    public final void init() throws LifecycleException {
+        transition(INITIALIZABLE, LifeState.INITIALIZING, LifeState.INITIALIZED, this::init0);
+    }
+
+    /**
+     * Internal init logic
+     *
+     * @throws LifecycleException if fails to init
+     */
+    protected abstract void init0() throws LifecycleException;
+
+    @Override
+    public final void start() throws LifecycleException {
+        if ((INITIALIZABLE & 1L << state) != 0) {
+            init();
+        }
+        transition(STARTABLE, LifeState.STARTING, LifeState.STARTED, this::start0);
+    }
+
+    /**
+     * Internal start logic
+     *
+     * @throws LifecycleException if fails to start
+     */
+    protected abstract void start0() throws LifecycleException;
+
+    @Override
+    public final void suspend() throws LifecycleException {
+        transition(SUSPENDABLE, LifeState.SUSPENDING, LifeState.SUSPENDED, this::suspend0);
+    }
+
+    /**
+     * Internal suspend logic
+     *
+     * @throws LifecycleException if fails to suspend
+     */
+    protected abstract void suspend0() throws LifecycleException;
+
+    @Override
+    public final void resume() throws LifecycleException {
+        transition(RESUMABLE, LifeState.RESUMING, LifeState.STARTED, this::resume0);
+    }
+
+    /**
+     * Internal resume logic
+     *
+     * @throws LifecycleException if fails to resume
+     */
+    protected abstract void resume0() throws LifecycleException;
+
+    @Override
+    public final void destroy() throws LifecycleException {
+        transition(DESTROYABLE, LifeState.DESTROYING, LifeState.DESTROYED, this::destroy0);
+    }
+
+    /**
+     * Internal destroy logic
+     *
+     * @throws LifecycleException if fails to destroy
+     */
+    protected abstract void destroy0() throws LifecycleException;
+
+    @Override
+    public final LifeState state() {
+        return STATES[state];
+    }
+
+    @Override
+    public final void addLifeStateListener(LifeStateListener listener) {
+        addLifeStateListener(listener, EnumSet.allOf(LifeState.class), EnumSet.allOf(LifeState.class));
+    }
+
+    /**
+     * add a life state listener only notified of the transitions from one of {@code oldStates} to one of
+     * {@code newStates}
+     *
+     * @param listener  the listener
+     * @param oldStates the states left
+     * @param newStates the states entered
+     */
+    public final void addLifeStateListener(LifeStateListener listener, Set<LifeState> oldStates,
+                                           Set<LifeState> newStates) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        registry().add(listener, ListenerRegistry.mask(oldStates), ListenerRegistry.mask(newStates));
+    }
+
+    @Override
+    public final boolean awaitState(LifeState target, long timeout, TimeUnit unit) throws InterruptedException {
+        if (state() == target) {
+            return true;
+        }
+        CompletableFuture<LifeState> future = onState(target);
+        try {
+            future.get(timeout, unit);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            //unsubscribes the waiter
+            future.cancel(false);
+            return state() == target;
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public final CompletableFuture<LifeState> onState(LifeState target) {
+        if (state() == target) {
+            return CompletableFuture.completedFuture(target);
+        }
+        StateFuture future = new StateFuture(registry());
+        future.registry.add(future, ListenerRegistry.ALL_STATES, 1L << target.ordinal());
+        //the state may have been entered before the subscription
+        if (state() == target) {
+            future.onStateChanged(target, target);
+        }
+        return future;
+    }
+
+    /**
+     * get the listeners of this instance, creating them on the first call
+     */
+    private ListenerRegistry registry() {
+        ListenerRegistry registry = listeners;
+        if (registry == null) {
+            LISTENERS_UPDATER.compareAndSet(this, null, new ListenerRegistry());
+            registry = listeners;
+        }
+        return registry;
+    }
+
+    /**
+     * run a transition on the current thread
+     */
+    private void transition(long legal, LifeState transitional, LifeState target, Step step)
+            throws LifecycleException {
+        begin(legal, transitional);
+        List<CompactLifecycle> running = RUNNING.get();
+        running.add(this);
+        try {
+            step.run();
+        } catch (Throwable cause) {
+            complete(transitional, LifeState.SICK);
+            throw LifecycleException.wrap(cause);
+        } finally {
+            running.remove(running.size() - 1);
+        }
+        complete(transitional, target);
+    }
+
+    /**
+     * move from one of the {@code legal} states to the {@code transitional} one, failing if another thread is
+     * running a transition
+     */
+    private void begin(long legal, LifeState transitional) throws LifecycleException {
+        while (true) {
+            int current = state;
+            LifeState currentState = STATES[current];
+            if ((legal & 1L << current) == 0 || (TRANSITIONAL & 1L << current) != 0 && !isRunningTransition()) {
+                throw new LifecycleException("Illegal state " + currentState.name());
+            }
+            if (STATE_UPDATER.compareAndSet(this, current, transitional.ordinal())) {
+                onStateChanged(currentState, transitional);
+                return;
+            }
+        }
+    }
+
+    private boolean isRunningTransition() {
+        for (CompactLifecycle component : RUNNING.get()) {
+            if (component == this) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * leave the {@code transitional} state, unless a re-entrant call already moved the component elsewhere
+     */
+    private void complete(LifeState transitional, LifeState target) {
+        if (STATE_UPDATER.compareAndSet(this, transitional.ordinal(), target.ordinal())) {
+            onStateChanged(transitional, target);
+        }
+    }
+
+    private void onStateChanged(LifeState oldState, LifeState newState) {
+        ListenerRegistry registry = listeners;
+        if (registry == null) {
+            return;
+        }
+        for (ListenerRegistry.Subscription subscription : registry.subscriptions(newState)) {
+            if (!subscription.accepts(oldState)) {
+                continue;
+            }
+            try {
+                subscription.listener.onStateChanged(oldState, newState);
+            } catch (Exception e) {
+                logger.error("listener[{}] of {} cause exception, {}->{}", subscription.listener.toString(),
+                        toString(), oldState, newState, e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step {
+
+        void run() throws LifecycleException;
+    }
+
+    /**
+     * The future of {@link #onState(LifeState)}, subscribed until completed or cancelled
+     */
+    private static final class StateFuture extends CompletableFuture<LifeState> implements LifeStateListener {
+
+        private final ListenerRegistry registry;
+
+        private StateFuture(ListenerRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void onStateChanged(LifeState oldState, LifeState newState) {
+            registry.remove(this);
+            complete(newState);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            registry.remove(this);
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class IdleTracker, suspends a component left idle for a while and resumes it on the next call.
+ * <p/>
+ * <p>Calls go through {@link #enter()} and {@link #exit()}, on top of the {@link LifecycleGuard} of the component.
+ * A check running every quarter of the idle timeout suspends the component once nothing was in flight during the
+ * whole timeout; the first call after that resumes it, the following ones get in as usual.</p>
+ * <p/>
+ * <pre>
+ * if (tracker.enter()) {
+ *     try {
+ *         ...
+ *     } finally {
+ *         tracker.exit();
+ *     }
+ * }
+ * </pre>
+ *
+ * @author ytbean
+ * @date 2026/10/20 00:00
+ */
+public final class IdleTracker implements Closeable {
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(IdleTracker.class);
+
+    /**
+     * the number of times a call tries to resume the component, should it be suspended again meanwhile
+     */
+    private static final int MAX_RESUMES = 3;
+
+    private final AbstractLifecycle component;
+
+    private final LifecycleGuard guard;
+
+    private final long idleTimeoutNanos;
+
+    /**
+     * the last access is only written when older than this, so busy components don't write it on every call
+     */
+    private final long resolutionNanos;
+
+    private final ScheduledFuture<?> check;
+
+    private volatile long lastAccess = System.nanoTime();
+
+    public IdleTracker(AbstractLifecycle component, long idleTimeout, TimeUnit unit) {
+        this(component, idleTimeout, unit, Scheduler.INSTANCE);
+    }
+
+    /**
+     * track a component
+     *
+     * @param component   the component
+     * @param idleTimeout the time without calls after which the component is suspended
+     * @param unit        the unit of the timeout
+     * @param scheduler   runs the idle check and the suspensions
+     */
+    public IdleTracker(AbstractLifecycle component, long idleTimeout, TimeUnit unit,
+                       ScheduledExecutorService scheduler) {
+        if (component == null) {
+            throw new NullPointerException("component");
+        }
+        if (idleTimeout <= 0) {
+            throw new IllegalArgumentException("idle timeout must be positive");
+        }
+        this.component = component;
+        this.guard = component.guard();
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.resolutionNanos = idleTimeoutNanos / 16;
+        long period = Math.max(1, idleTimeoutNanos / 4);
+        this.check = scheduler.scheduleWithFixedDelay(this::suspendIfIdle, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * enter the component, resuming it if it was suspended
+     *
+     * @return true if entered, in which case {@link #exit()} must follow, false if the component is neither started
+     * nor suspended
+     * @throws LifecycleException if fails to resume the component
+     */
+    public boolean enter() throws LifecycleException {
+        touch();
+        for (int resumes = 0; ; resumes++) {
+            if (guard.tryEnter()) {
+                return true;
+            }
+            LifeState state = component.state();
+            if (resumes == MAX_RESUMES || state == LifeState.NEW || state == LifeState.INITIALIZING
+                    || state == LifeState.INITIALIZED || state == LifeState.DESTROYING
+                    || state == LifeState.DESTROYED || state == LifeState.SICK) {
+                return false;
+            }
+            try {
+                //waits for a transition in progress, e.g. a suspension, before resuming
+                component.resume();
+            } catch (LifecycleException e) {
+                //resumed or started by someone else meanwhile, try again
+                if (component.state() != LifeState.STARTED) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public void exit() {
+        touch();
+        guard.exit();
+    }
+
+    /**
+     * stop tracking the component, which is left in its current state
+     */
+    @Override
+    public void close() {
+        check.cancel(false);
+    }
+
+    private void touch() {
+        long now = System.nanoTime();
+        if (now - lastAccess > resolutionNanos) {
+            lastAccess = now;
+        }
+    }
+
+    private void suspendIfIdle() {
+        LifeState state = component.state();
+        if (state == LifeState.DESTROYED) {
+            close();
+            return;
+        }
+        if (state != LifeState.STARTED || guard.inFlight() != 0
+                || System.nanoTime() - lastAccess < idleTimeoutNanos) {
+            return;
+        }
+        try {
+            component.suspend();
+            logger.debug("{} suspended after {}ms idle", component.toString(),
+                    TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos));
+        } catch (LifecycleException e) {
+            //lost a race against another transition, or sick
+            logger.warn("{} failed to suspend while idle", component.toString(), e);
+        }
+    }
+
+    /**
+     * the scheduler shared by the trackers created without one
+     */
+    private static final class Scheduler {
+
+        private static final ScheduledExecutorService INSTANCE = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                thread.setName("lifecycle-idle-tracker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
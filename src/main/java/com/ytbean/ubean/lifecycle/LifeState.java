@@ -26,7 +26,9 @@ public enum LifeState {
 
     INITIALIZING, INITIALIZED,
 
-    STARTING, STARTED,
+    STARTING,
+
+    STARTED,
 
     SUSPENDING, SUSPENDED,
 
@@ -34,5 +36,9 @@ public enum LifeState {
 
     DESTROYING, DESTROYED,
 
-    SICK
+    SICK,
+
+    //optional, between STARTING and STARTED, see AbstractLifecycle#warmupRequired. Last so that the ordinals of the
+    //other states, held as ints and masks, do not move
+    WARMING
 }
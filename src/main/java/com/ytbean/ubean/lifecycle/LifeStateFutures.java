@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The class LifeStateFutures, the futures of the states a lifecycle has not entered yet, one per state shared by
+ * its waiters and dropped once completed
+ *
+ * @author ytbean
+ * @date 2026/10/20 09:10
+ */
+final class LifeStateFutures {
+
+    /**
+     * the futures of the lifecycles relying on the default methods of {@link Lifecycle}, fed by a listener
+     */
+    private static final Map<Lifecycle, LifeStateFutures> ATTACHED = new WeakHashMap<>();
+
+    private final AtomicReferenceArray<CompletableFuture<LifeState>> futures =
+            new AtomicReferenceArray<>(LifeState.values().length);
+
+    /**
+     * get the futures of a lifecycle, adding the listener completing them on the first call
+     *
+     * @param lifecycle the lifecycle
+     * @return the futures
+     */
+    static LifeStateFutures attachedTo(Lifecycle lifecycle) {
+        synchronized (ATTACHED) {
+            LifeStateFutures attached = ATTACHED.get(lifecycle);
+            if (attached == null) {
+                LifeStateFutures created = new LifeStateFutures();
+                lifecycle.addLifeStateListener((oldState, newState) -> created.complete(newState));
+                ATTACHED.put(lifecycle, attached = created);
+            }
+            return attached;
+        }
+    }
+
+    /**
+     * get a copy of the future of a state, cancelling it does not affect the other callers
+     *
+     * @param lifecycle the lifecycle
+     * @param target    the state
+     * @return the future
+     */
+    CompletableFuture<LifeState> onState(Lifecycle lifecycle, LifeState target) {
+        return shared(lifecycle, target).thenApply(reached -> reached);
+    }
+
+    /**
+     * wait on the shared future of a state, a timed wait leaves nothing behind on the future once returned
+     *
+     * @param lifecycle the lifecycle
+     * @param target    the state
+     * @param timeout   the maximum time to wait
+     * @param unit      the unit of the timeout
+     * @return true if the state was reached
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean await(Lifecycle lifecycle, LifeState target, long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            shared(lifecycle, target).get(timeout, unit);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            //the shared futures are never handed out, so never completed exceptionally
+            return lifecycle.state() == target;
+        }
+    }
+
+    /**
+     * complete the future of the state entered
+     *
+     * @param newState the state entered
+     */
+    void complete(LifeState newState) {
+        CompletableFuture<LifeState> future = futures.getAndSet(newState.ordinal(), null);
+        if (future != null) {
+            future.complete(newState);
+        }
+    }
+
+    private CompletableFuture<LifeState> shared(Lifecycle lifecycle, LifeState target) {
+        CompletableFuture<LifeState> future = futures.get(target.ordinal());
+        while (future == null) {
+            CompletableFuture<LifeState> created = new CompletableFuture<>();
+            future = futures.compareAndSet(target.ordinal(), null, created) ? created : futures.get(target.ordinal());
+        }
+        //the state may have been entered before the future was published
+        if (lifecycle.state() == target) {
+            futures.compareAndSet(target.ordinal(), future, null);
+            future.complete(target);
+        }
+        return future;
+    }
+}
@@ -15,6 +15,11 @@
  */
 package com.ytbean.ubean.lifecycle;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
 /**
  * The interface Lifecycle
  *
@@ -73,4 +78,140 @@ public interface Lifecycle {
      * @return current life state
      */
     LifeState state();
+
+    /**
+     * wait until this lifecycle is in the given state, without polling. The default implementation listens to the
+     * state changes through {@link #addLifeStateListener(LifeStateListener)}
+     *
+     * @param target  the state to wait for
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return true if the state was reached, false if the timeout elapsed before
+     * @throws InterruptedException if interrupted while waiting
+     */
+    default boolean awaitState(LifeState target, long timeout, TimeUnit unit) throws InterruptedException {
+        if (state() == target) {
+            return true;
+        }
+        return LifeStateFutures.attachedTo(this).await(this, target, timeout, unit);
+    }
+
+    /**
+     * get a future completed when this lifecycle enters the given state, or already completed if it is in that
+     * state. Actions attached to the future without an executor run on the thread changing the state
+     *
+     * @param target the state to wait for
+     * @return the future of the state
+     */
+    default CompletableFuture<LifeState> onState(LifeState target) {
+        if (state() == target) {
+            return CompletableFuture.completedFuture(target);
+        }
+        return LifeStateFutures.attachedTo(this).onState(this, target);
+    }
+
+    /**
+     * init on the given executor
+     *
+     * @param executor the executor running the operation
+     * @return the future of the state reached, completed exceptionally with a {@link LifecycleException} if fail
+     * to init
+     */
+    default CompletableFuture<LifeState> initAsync(Executor executor) {
+        return LifecycleTasks.submit(this::init, LifeState.INITIALIZED, executor);
+    }
+
+    /**
+     * init on the default executor of this lifecycle, the common fork-join pool unless overridden
+     *
+     * @return the future of the state reached
+     * @see #initAsync(Executor)
+     */
+    default CompletableFuture<LifeState> initAsync() {
+        return initAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * start on the given executor
+     *
+     * @param executor the executor running the operation
+     * @return the future of the state reached, completed exceptionally with a {@link LifecycleException} if fail
+     * to start
+     */
+    default CompletableFuture<LifeState> startAsync(Executor executor) {
+        return LifecycleTasks.submit(this::start, LifeState.STARTED, executor);
+    }
+
+    /**
+     * start on the default executor of this lifecycle, the common fork-join pool unless overridden
+     *
+     * @return the future of the state reached
+     * @see #startAsync(Executor)
+     */
+    default CompletableFuture<LifeState> startAsync() {
+        return startAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * suspend on the given executor
+     *
+     * @param executor the executor running the operation
+     * @return the future of the state reached, completed exceptionally with a {@link LifecycleException} if fail
+     * to suspend
+     */
+    default CompletableFuture<LifeState> suspendAsync(Executor executor) {
+        return LifecycleTasks.submit(this::suspend, LifeState.SUSPENDED, executor);
+    }
+
+    /**
+     * suspend on the default executor of this lifecycle, the common fork-join pool unless overridden
+     *
+     * @return the future of the state reached
+     * @see #suspendAsync(Executor)
+     */
+    default CompletableFuture<LifeState> suspendAsync() {
+        return suspendAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * resume on the given executor
+     *
+     * @param executor the executor running the operation
+     * @return the future of the state reached, completed exceptionally with a {@link LifecycleException} if fail
+     * to resume
+     */
+    default CompletableFuture<LifeState> resumeAsync(Executor executor) {
+        return LifecycleTasks.submit(this::resume, LifeState.STARTED, executor);
+    }
+
+    /**
+     * resume on the default executor of this lifecycle, the common fork-join pool unless overridden
+     *
+     * @return the future of the state reached
+     * @see #resumeAsync(Executor)
+     */
+    default CompletableFuture<LifeState> resumeAsync() {
+        return resumeAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * destroy on the given executor
+     *
+     * @param executor the executor running the operation
+     * @return the future of the state reached, completed exceptionally with a {@link LifecycleException} if fail
+     * to destroy
+     */
+    default CompletableFuture<LifeState> destroyAsync(Executor executor) {
+        return LifecycleTasks.submit(this::destroy, LifeState.DESTROYED, executor);
+    }
+
+    /**
+     * destroy on the default executor of this lifecycle, the common fork-join pool unless overridden
+     *
+     * @return the future of the state reached
+     * @see #destroyAsync(Executor)
+     */
+    default CompletableFuture<LifeState> destroyAsync() {
+        return destroyAsync(ForkJoinPool.commonPool());
+    }
 }
@@ -0,0 +1,436 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The class LifecycleGroup, a lifecycle made of components depending on each other.
+ * <p/>
+ * <p>Starting the group starts every component on the executor as soon as all of its dependencies are
+ * {@code STARTED}, so independent branches of the dependency graph start in parallel and the start time of the
+ * group approaches the duration of its critical path. If any component fails to start (and ends up {@code SICK}),
+ * the components not started yet are skipped, the ones already started are destroyed and the group itself becomes
+ * {@code SICK}.</p>
+ * <p/>
+ * <p>Destroying the group destroys every component once all of its dependents are destroyed, independent branches
+ * in parallel. The shutdown can be bounded with {@link #shutdownTimeouts(long, long, TimeUnit)}: a component which
+ * is not destroyed in time is reported as {@code TIMED_OUT} in the {@link ShutdownReport} and its dependencies are
+ * destroyed anyway, so one stuck {@code destroy0()} cannot hold up the whole shutdown.</p>
+ * <p/>
+ * <p>The components and their dependencies are meant to be declared before the group is started.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 18:20
+ */
+public class LifecycleGroup extends AbstractLifecycle {
+
+    private final Map<Lifecycle, Set<Lifecycle>> dependencies = new LinkedHashMap<>();
+
+    private final Executor executor;
+
+    private volatile long shutdownTimeoutNanos = Long.MAX_VALUE;
+
+    private volatile long componentTimeoutNanos = Long.MAX_VALUE;
+
+    private volatile ShutdownReport lastShutdown;
+
+    public LifecycleGroup() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * create a group
+     *
+     * @param executor the executor running the operations of the components, typically a {@link ForkJoinPool}
+     */
+    public LifecycleGroup(Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * add a component
+     *
+     * @param component the component
+     * @param dependsOn the components which must be started before it, added to the group as well
+     * @return this group
+     */
+    public synchronized LifecycleGroup add(Lifecycle component, Lifecycle... dependsOn) {
+        if (component == null) {
+            throw new NullPointerException("component");
+        }
+        Set<Lifecycle> direct = dependencies.computeIfAbsent(component, key -> new LinkedHashSet<>());
+        for (Lifecycle dependency : dependsOn) {
+            if (dependency == null) {
+                throw new NullPointerException("dependency");
+            }
+            dependencies.computeIfAbsent(dependency, key -> new LinkedHashSet<>());
+            direct.add(dependency);
+        }
+        return this;
+    }
+
+    /**
+     * get the components in a start order compatible with their dependencies
+     *
+     * @return the components
+     * @throws LifecycleException if the dependencies contain a cycle
+     */
+    public synchronized List<Lifecycle> components() throws LifecycleException {
+        return topologicalOrder(dependencies);
+    }
+
+    /**
+     * get the direct dependencies of a component
+     *
+     * @param component the component
+     * @return the dependencies, empty if the component does not belong to this group
+     */
+    public synchronized Set<Lifecycle> dependenciesOf(Lifecycle component) {
+        Set<Lifecycle> direct = dependencies.get(component);
+        return direct == null ? Collections.emptySet() : Collections.unmodifiableSet(new LinkedHashSet<>(direct));
+    }
+
+    protected final Executor executor() {
+        return executor;
+    }
+
+    @Override
+    protected void init0() throws LifecycleException {
+        //components are initialized when started
+    }
+
+    @Override
+    protected void start0() throws LifecycleException {
+        Map<Lifecycle, Set<Lifecycle>> graph = snapshot();
+        List<Lifecycle> order = topologicalOrder(graph);
+        profileDependencies(graph);
+        Map<Lifecycle, CompletableFuture<LifeState>> started = new HashMap<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+        for (Lifecycle component : order) {
+            CompletableFuture<?>[] prerequisites = graph.get(component).stream().map(started::get)
+                    .toArray(CompletableFuture<?>[]::new);
+            started.put(component, CompletableFuture.allOf(prerequisites).thenCompose(ignored -> {
+                if (aborted.get()) {
+                    throw new CancellationException("start of " + component + " skipped");
+                }
+                if (component.state() == LifeState.STARTED) {
+                    return CompletableFuture.completedFuture(LifeState.STARTED);
+                }
+                return component.startAsync(executor);
+            }).whenComplete((state, failure) -> {
+                if (failure != null) {
+                    aborted.set(true);
+                }
+            }));
+        }
+        try {
+            CompletableFuture.allOf(started.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException | CancellationException e) {
+            LifecycleException failure = new LifecycleException("Failed to start " + this, firstFailure(order,
+                    started));
+            stopStarted(order, failure);
+            throw failure;
+        }
+    }
+
+    @Override
+    protected void suspend0() throws LifecycleException {
+        List<Lifecycle> order = components();
+        Collections.reverse(order);
+        for (Lifecycle component : order) {
+            if (component.state() == LifeState.STARTED) {
+                component.suspend();
+            }
+        }
+    }
+
+    @Override
+    protected void resume0() throws LifecycleException {
+        for (Lifecycle component : components()) {
+            if (component.state() == LifeState.SUSPENDED) {
+                component.resume();
+            }
+        }
+    }
+
+    /**
+     * set the time budgets of the shutdown run by {@link #destroy()}
+     *
+     * @param timeout          the deadline of the whole shutdown
+     * @param componentTimeout the time a single component is given to be destroyed
+     * @param unit             the unit of both
+     * @return this group
+     */
+    public LifecycleGroup shutdownTimeouts(long timeout, long componentTimeout, TimeUnit unit) {
+        if (timeout <= 0 || componentTimeout <= 0) {
+            throw new IllegalArgumentException("timeouts must be positive");
+        }
+        this.shutdownTimeoutNanos = unit.toNanos(timeout);
+        this.componentTimeoutNanos = unit.toNanos(componentTimeout);
+        return this;
+    }
+
+    /**
+     * destroy the group within the given budgets, a component which does not complete in time is left behind and
+     * its dependencies are destroyed anyway
+     *
+     * @param timeout          the deadline of the whole shutdown
+     * @param componentTimeout the time a single component is given to be destroyed
+     * @param unit             the unit of both
+     * @return the report of the shutdown, the group is {@code DESTROYED} if it is clean and {@code SICK} otherwise
+     */
+    public ShutdownReport shutdown(long timeout, long componentTimeout, TimeUnit unit) {
+        shutdownTimeouts(timeout, componentTimeout, unit);
+        try {
+            destroy();
+        } catch (LifecycleException e) {
+            //described by the report
+        }
+        return lastShutdown;
+    }
+
+    /**
+     * get the report of the last shutdown
+     *
+     * @return the report, null if the group was never destroyed
+     */
+    public ShutdownReport lastShutdown() {
+        return lastShutdown;
+    }
+
+    @Override
+    protected void destroy0() throws LifecycleException {
+        ShutdownReport report = destroyComponents(shutdownTimeoutNanos, componentTimeoutNanos);
+        lastShutdown = report;
+        if (!report.isClean()) {
+            Throwable cause = report.failures().isEmpty() ? null : report.failures().values().iterator().next();
+            throw new LifecycleException("Failed to destroy " + this + ", " + report, cause);
+        }
+    }
+
+    /**
+     * destroy every component once all of its dependents are done with, so independent branches are destroyed in
+     * parallel
+     */
+    private ShutdownReport destroyComponents(long timeoutNanos, long componentTimeoutNanos)
+            throws LifecycleException {
+        long started = System.nanoTime();
+        Map<Lifecycle, Set<Lifecycle>> graph = snapshot();
+        List<Lifecycle> order = topologicalOrder(graph);
+        profileDependencies(graph);
+        Map<Lifecycle, List<Lifecycle>> dependents = new HashMap<>();
+        graph.forEach((component, direct) -> direct.forEach(dependency ->
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(component)));
+        Map<Lifecycle, ShutdownReport.Outcome> outcomes = new ConcurrentHashMap<>();
+        Map<Lifecycle, Throwable> failures = new ConcurrentHashMap<>();
+        Map<Lifecycle, CompletableFuture<Void>> destroyed = new HashMap<>();
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Lifecycle component = order.get(i);
+            CompletableFuture<?>[] prerequisites = dependents.getOrDefault(component, Collections.emptyList())
+                    .stream().map(destroyed::get).toArray(CompletableFuture<?>[]::new);
+            destroyed.put(component, CompletableFuture.allOf(prerequisites).thenCompose(ignored -> {
+                //never initialized, or already rolled back by a failed start, like in stopStarted
+                if (component.state() == LifeState.NEW || component.state() == LifeState.DESTROYED) {
+                    outcomes.put(component, ShutdownReport.Outcome.DESTROYED);
+                    return CompletableFuture.completedFuture(null);
+                }
+                long budgetNanos = componentTimeoutNanos;
+                if (timeoutNanos != Long.MAX_VALUE) {
+                    long remaining = timeoutNanos - (System.nanoTime() - started);
+                    if (remaining <= 0) {
+                        outcomes.put(component, ShutdownReport.Outcome.SKIPPED);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    budgetNanos = Math.min(remaining, budgetNanos);
+                }
+                return destroyWithin(component, budgetNanos, outcomes, failures);
+            }));
+        }
+        CompletableFuture.allOf(destroyed.values().toArray(new CompletableFuture<?>[0])).join();
+        Map<Lifecycle, ShutdownReport.Outcome> ordered = new LinkedHashMap<>();
+        Map<Lifecycle, Throwable> orderedFailures = new LinkedHashMap<>();
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Lifecycle component = order.get(i);
+            ordered.put(component, outcomes.get(component));
+            if (failures.containsKey(component)) {
+                orderedFailures.put(component, failures.get(component));
+            }
+        }
+        return new ShutdownReport(ordered, orderedFailures, System.nanoTime() - started);
+    }
+
+    /**
+     * destroy a component, the returned future completes normally once it is destroyed, failed or timed out
+     */
+    private CompletableFuture<Void> destroyWithin(Lifecycle component, long budgetNanos,
+                                                  Map<Lifecycle, ShutdownReport.Outcome> outcomes,
+                                                  Map<Lifecycle, Throwable> failures) {
+        CompletableFuture<Void> settled = new CompletableFuture<>();
+        //the first outcome recorded wins the race between the destruction and its timeout
+        ScheduledFuture<?> timeout = budgetNanos == Long.MAX_VALUE ? null : Timer.INSTANCE.schedule(() -> {
+            if (outcomes.putIfAbsent(component, ShutdownReport.Outcome.TIMED_OUT) == null) {
+                settled.complete(null);
+            }
+        }, budgetNanos, TimeUnit.NANOSECONDS);
+        component.destroyAsync(executor).whenComplete((state, failure) -> {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (failure instanceof CompletionException && failure.getCause() != null) {
+                failure = failure.getCause();
+            }
+            if (outcomes.putIfAbsent(component, failure == null ? ShutdownReport.Outcome.DESTROYED
+                    : ShutdownReport.Outcome.FAILED) == null) {
+                if (failure != null) {
+                    failures.put(component, failure);
+                }
+                settled.complete(null);
+            }
+        });
+        return settled;
+    }
+
+    /**
+     * destroy, in reverse order, the components started before a start failure
+     */
+    private void stopStarted(List<Lifecycle> order, LifecycleException failure) {
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Lifecycle component = order.get(i);
+            if (component.state() == LifeState.NEW || component.state() == LifeState.DESTROYED) {
+                continue;
+            }
+            try {
+                component.destroy();
+            } catch (LifecycleException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    private static Throwable firstFailure(List<Lifecycle> order, Map<Lifecycle, CompletableFuture<LifeState>>
+            started) {
+        for (Lifecycle component : order) {
+            try {
+                started.get(component).join();
+            } catch (CompletionException e) {
+                //skipped components carry a cancellation, look for the genuine failure
+                if (!(e.getCause() instanceof CancellationException)) {
+                    return e.getCause() == null ? e : e.getCause();
+                }
+            } catch (CancellationException e) {
+                //skipped
+            }
+        }
+        return null;
+    }
+
+    /**
+     * let the installed profiler, if any, build the critical path through this group
+     */
+    private void profileDependencies(Map<Lifecycle, Set<Lifecycle>> graph) {
+        LifecycleProfiler profiler = LifecycleProfiler.active;
+        if (profiler != null) {
+            graph.forEach((component, direct) -> {
+                profiler.recordMember(this, component);
+                direct.forEach(dependency -> profiler.recordDependency(component, dependency));
+            });
+        }
+    }
+
+    private synchronized Map<Lifecycle, Set<Lifecycle>> snapshot() {
+        Map<Lifecycle, Set<Lifecycle>> copy = new LinkedHashMap<>();
+        dependencies.forEach((component, direct) -> copy.put(component, new LinkedHashSet<>(direct)));
+        return copy;
+    }
+
+    /**
+     * Kahn's algorithm, stable with respect to the order in which components were added
+     */
+    static List<Lifecycle> topologicalOrder(Map<Lifecycle, Set<Lifecycle>> graph) throws LifecycleException {
+        Map<Lifecycle, Integer> pending = new HashMap<>();
+        Map<Lifecycle, List<Lifecycle>> dependents = new HashMap<>();
+        Deque<Lifecycle> ready = new ArrayDeque<>();
+        graph.forEach((component, direct) -> {
+            pending.put(component, direct.size());
+            for (Lifecycle dependency : direct) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(component);
+            }
+            if (direct.isEmpty()) {
+                ready.add(component);
+            }
+        });
+        List<Lifecycle> order = new ArrayList<>(graph.size());
+        while (!ready.isEmpty()) {
+            Lifecycle component = ready.poll();
+            order.add(component);
+            for (Lifecycle dependent : dependents.getOrDefault(component, Collections.emptyList())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (order.size() != graph.size()) {
+            Set<Lifecycle> cycle = new LinkedHashSet<>(graph.keySet());
+            order.forEach(cycle::remove);
+            throw new LifecycleException("Dependency cycle among " + cycle);
+        }
+        return order;
+    }
+
+    /**
+     * the timer of the component timeouts, created on the first bounded shutdown
+     */
+    private static final class Timer {
+
+        private static final ScheduledExecutorService INSTANCE = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                thread.setName("lifecycle-shutdown-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+}
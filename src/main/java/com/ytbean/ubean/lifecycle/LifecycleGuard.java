@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The class LifecycleGuard, admits business calls into a component only while it is {@code STARTED} and tells when
+ * the calls in flight are done.
+ * <p/>
+ * <pre>
+ * if (!guard.tryEnter()) {
+ *     throw new RejectedExecutionException("not started");
+ * }
+ * try {
+ *     ...
+ * } finally {
+ *     guard.exit();
+ * }
+ * </pre>
+ * <p/>
+ * <p>Entries and exits are counted by two striped counters, so concurrent calls don't contend on a shared word.
+ * Since the admission is decided by the state itself, leaving {@code STARTED} closes the guard at once: an
+ * {@link AbstractLifecycle} drains its guard before running {@code suspend0} or {@code destroy0}, and admits calls
+ * again as soon as it is started or resumed.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 22:00
+ */
+public final class LifecycleGuard {
+
+    private final Lifecycle lifecycle;
+
+    private final LongAdder entered = new LongAdder();
+
+    private final LongAdder exited = new LongAdder();
+
+    /**
+     * the thread waiting for the calls in flight to exit, unparked by every exit
+     */
+    private volatile Thread drainer;
+
+    public LifecycleGuard(Lifecycle lifecycle) {
+        if (lifecycle == null) {
+            throw new NullPointerException("lifecycle");
+        }
+        this.lifecycle = lifecycle;
+    }
+
+    /**
+     * enter the component, every successful entry must be followed by an {@link #exit()}
+     *
+     * @return true if entered, false if the component is not {@code STARTED}
+     */
+    public boolean tryEnter() {
+        if (lifecycle.state() != LifeState.STARTED) {
+            return false;
+        }
+        entered.increment();
+        //the state may have changed in between, and a drain may already have counted this entry
+        if (lifecycle.state() != LifeState.STARTED) {
+            exit();
+            return false;
+        }
+        return true;
+    }
+
+    public void exit() {
+        exited.increment();
+        Thread waiting = drainer;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+
+    /**
+     * get the number of calls in flight
+     *
+     * @return the number of calls
+     */
+    public long inFlight() {
+        //exits are read first, so an exit can't be counted without its entry
+        long exits = exited.sum();
+        return entered.sum() - exits;
+    }
+
+    /**
+     * wait for the calls in flight to exit, meant to be called once the component left {@code STARTED}
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return true if drained, false if calls were still in flight when the timeout elapsed
+     */
+    public boolean awaitDrained(long timeout, TimeUnit unit) {
+        if (inFlight() == 0) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        drainer = Thread.currentThread();
+        try {
+            while (inFlight() != 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            return true;
+        } finally {
+            drainer = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LifecycleGuard{lifecycle=" + lifecycle + ", inFlight=" + inFlight() + '}';
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The class LifecyclePool, a warm standby of components kept {@code INITIALIZED}, so that bringing one up on demand
+ * only costs its {@code start0}.
+ * <p/>
+ * <p>Every acquisition is replaced in the background. The number of idle components follows the acquisition rate:
+ * the pool aims at holding the components acquired during one initialization, measured as it goes, never less than
+ * {@code minIdle} nor more than {@code maxIdle}. An exponentially decayed rate is used, so the pool grows with a
+ * burst and shrinks back, once a second, when the acquisitions slow down.</p>
+ * <p/>
+ * <p>Destroying the pool waits, up to the drain timeout, for the components being initialized in the background, and
+ * destroys them with the idle ones.</p>
+ *
+ * @param <T> the type of the components
+ * @author ytbean
+ * @date 2026/10/19 23:30
+ */
+public class LifecyclePool<T extends Lifecycle> extends AbstractLifecycle {
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(LifecyclePool.class);
+
+    /**
+     * the time constant of the decayed acquisition rate
+     */
+    private static final double RATE_WINDOW_SECONDS = 1;
+
+    /**
+     * the weight of a new sample in the average initialization time
+     */
+    private static final double INIT_TIME_ALPHA = 0.2;
+
+    private final Supplier<? extends T> factory;
+
+    private final int minIdle;
+
+    private final int maxIdle;
+
+    private final Executor executor;
+
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /**
+     * the components being created and initialized in the background
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * notified when {@link #pending} drops to zero
+     */
+    private final Object settled = new Object();
+
+    private final LongAdder acquisitions = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private double rate;
+
+    private long rateUpdated = System.nanoTime();
+
+    private volatile double initSeconds;
+
+    private volatile ScheduledExecutorService maintenance;
+
+    public LifecyclePool(Supplier<? extends T> factory, int minIdle, int maxIdle) {
+        this(factory, minIdle, maxIdle, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * create a pool
+     *
+     * @param factory  creates the components, in state {@code NEW}
+     * @param minIdle  the minimum number of idle components
+     * @param maxIdle  the maximum number of idle components
+     * @param executor the executor initializing the components in the background
+     */
+    public LifecyclePool(Supplier<? extends T> factory, int minIdle, int maxIdle, Executor executor) {
+        if (factory == null) {
+            throw new NullPointerException("factory");
+        }
+        if (executor == null) {
+            throw new NullPointerException("executor");
+        }
+        if (minIdle < 0 || maxIdle < minIdle) {
+            throw new IllegalArgumentException("illegal idle bounds " + minIdle + ".." + maxIdle);
+        }
+        this.factory = factory;
+        this.minIdle = minIdle;
+        this.maxIdle = maxIdle;
+        this.executor = executor;
+    }
+
+    /**
+     * start an idle component, or a new one if none is idle, and replace it in the background
+     *
+     * @return the started component, owned by the caller from now on
+     * @throws LifecycleException if the pool is not started, or fails to start the component
+     */
+    public T acquire() throws LifecycleException {
+        if (state() != LifeState.STARTED) {
+            throw new LifecycleException("Illegal state " + state().name());
+        }
+        acquisitions.increment();
+        recordAcquisition();
+        T component = idle.poll();
+        if (component != null) {
+            idleCount.decrementAndGet();
+        } else {
+            misses.increment();
+            component = createInitialized();
+        }
+        refill();
+        try {
+            component.start();
+        } catch (LifecycleException e) {
+            try {
+                component.destroy();
+            } catch (LifecycleException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        return component;
+    }
+
+    /**
+     * get the number of idle components
+     *
+     * @return the number of components
+     */
+    public int idle() {
+        return idleCount.get();
+    }
+
+    /**
+     * get the number of idle components the pool currently aims at
+     *
+     * @return the number of components
+     */
+    public int target() {
+        double wanted = Math.ceil(currentRate() * initSeconds);
+        return (int) Math.max(minIdle, Math.min(maxIdle, wanted));
+    }
+
+    public long acquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * get the number of acquisitions which found no idle component and had to initialize one
+     *
+     * @return the number of acquisitions
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    protected void init0() throws LifecycleException {
+        //idle components are created when started
+    }
+
+    @Override
+    protected void start0() throws LifecycleException {
+        List<CompletableFuture<T>> created = new ArrayList<>(minIdle);
+        for (int i = 0; i < minIdle; i++) {
+            created.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return createInitialized();
+                } catch (LifecycleException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        //every creation is waited for, so none is left behind when one of them fails
+        CompletableFuture.allOf(created.toArray(new CompletableFuture<?>[0])).handle((done, e) -> null).join();
+        List<T> components = new ArrayList<>(minIdle);
+        LifecycleException failure = null;
+        for (CompletableFuture<T> future : created) {
+            try {
+                components.add(future.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = LifecycleException.wrap(e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            components.forEach(this::destroyIdle);
+            throw failure;
+        }
+        components.forEach(this::offer);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("lifecycle-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refill, 1, 1, TimeUnit.SECONDS);
+        maintenance = scheduler;
+    }
+
+    @Override
+    protected void suspend0() throws LifecycleException {
+        //the idle components are kept
+    }
+
+    @Override
+    protected void resume0() throws LifecycleException {
+        //the idle components were kept
+    }
+
+    @Override
+    protected void destroy0() throws LifecycleException {
+        ScheduledExecutorService scheduler = maintenance;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            maintenance = null;
+        }
+        awaitBackground();
+        LifecycleException failure = null;
+        T component;
+        while ((component = idle.poll()) != null) {
+            idleCount.decrementAndGet();
+            try {
+                component.destroy();
+            } catch (LifecycleException e) {
+                if (failure == null) {
+                    failure = new LifecycleException("Failed to destroy the idle components of " + this, e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * bring the idle components to the target, creating the missing ones in the background and destroying the
+     * extra ones
+     */
+    private void refill() {
+        if (state() != LifeState.STARTED) {
+            return;
+        }
+        int target = target();
+        while (idleCount.get() + pending.get() < target) {
+            pending.incrementAndGet();
+            try {
+                executor.execute(this::createInBackground);
+            } catch (RejectedExecutionException e) {
+                release();
+                return;
+            }
+        }
+        while (idleCount.get() > target) {
+            T extra = idle.poll();
+            if (extra == null) {
+                return;
+            }
+            idleCount.decrementAndGet();
+            //off the thread of the caller of acquire()
+            try {
+                executor.execute(() -> destroyIdle(extra));
+            } catch (RejectedExecutionException e) {
+                destroyIdle(extra);
+            }
+        }
+    }
+
+    private void createInBackground() {
+        try {
+            T component = createInitialized();
+            if (state() == LifeState.STARTED || state() == LifeState.SUSPENDED) {
+                offer(component);
+                //destroy0 may have drained the idle components in between, whoever removes it destroys it
+                if (state() != LifeState.STARTED && state() != LifeState.SUSPENDED && idle.remove(component)) {
+                    idleCount.decrementAndGet();
+                    component.destroy();
+                }
+            } else {
+                component.destroy();
+            }
+        } catch (LifecycleException e) {
+            logger.warn("{} failed to initialize a standby component", toString(), e);
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        if (pending.decrementAndGet() == 0) {
+            synchronized (settled) {
+                settled.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * wait for the components being initialized in the background, up to the drain timeout
+     */
+    private void awaitBackground() throws LifecycleException {
+        long deadline = System.nanoTime() + drainTimeout(TimeUnit.NANOSECONDS);
+        synchronized (settled) {
+            long remaining;
+            while (pending.get() != 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(settled, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw LifecycleException.wrap(e);
+                }
+            }
+        }
+        if (pending.get() != 0) {
+            logger.warn("{} still has {} components initializing after {}ms, going on", toString(), pending.get(),
+                    drainTimeout(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void destroyIdle(T extra) {
+        try {
+            extra.destroy();
+        } catch (LifecycleException e) {
+            logger.warn("{} failed to destroy the idle {}", toString(), extra.toString(), e);
+        }
+    }
+
+    private T createInitialized() throws LifecycleException {
+        T component = factory.get();
+        long started = System.nanoTime();
+        component.init();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        double average = initSeconds;
+        initSeconds = average == 0 ? seconds : average + INIT_TIME_ALPHA * (seconds - average);
+        return component;
+    }
+
+    private void offer(T component) {
+        idle.offer(component);
+        idleCount.incrementAndGet();
+    }
+
+    /**
+     * add one acquisition to the decayed rate, in acquisitions per second
+     */
+    private synchronized void recordAcquisition() {
+        rate = decayedRate(System.nanoTime()) + 1 / RATE_WINDOW_SECONDS;
+    }
+
+    private synchronized double currentRate() {
+        return decayedRate(System.nanoTime());
+    }
+
+    private double decayedRate(long now) {
+        double elapsed = (now - rateUpdated) / 1e9;
+        rateUpdated = now;
+        rate *= Math.exp(-elapsed / RATE_WINDOW_SECONDS);
+        return rate;
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The class LifecycleProfiler, records how long every {@link AbstractLifecycle} spends in {@code init0},
+ * {@code start0}, {@code suspend0}, {@code resume0} and {@code destroy0}, on which thread.
+ * <p/>
+ * <p>While no profiler is installed the instrumentation costs a volatile read per operation. The recorded spans can
+ * be exported as a Chrome trace (open it in {@code chrome://tracing} or Perfetto) and summarized with their critical
+ * path, built from the dependencies declared to {@link LifecycleGroup}s.</p>
+ * <p/>
+ * <pre>
+ * LifecycleProfiler profiler = LifecycleProfiler.install();
+ * application.start();
+ * profiler.uninstall();
+ * profiler.writeChromeTrace(Paths.get("boot.json"));
+ * System.out.println(profiler.summary());
+ * </pre>
+ *
+ * @author ytbean
+ * @date 2026/10/19 21:30
+ */
+public final class LifecycleProfiler {
+
+    /**
+     * the installed profiler, read by {@link AbstractLifecycle} around every internal operation
+     */
+    static volatile LifecycleProfiler active;
+
+    private final long origin = System.nanoTime();
+
+    private final ConcurrentLinkedQueue<Span> spans = new ConcurrentLinkedQueue<>();
+
+    /**
+     * component -> the components it waits for, e.g. its dependencies when starting
+     */
+    private final Map<Lifecycle, Set<Lifecycle>> dependencies = new IdentityHashMap<>();
+
+    /**
+     * group -> its components, a group waits for all of them whatever the phase
+     */
+    private final Map<Lifecycle, Set<Lifecycle>> members = new IdentityHashMap<>();
+
+    private LifecycleProfiler() {
+    }
+
+    /**
+     * install a new profiler, replacing the installed one if any
+     *
+     * @return the profiler
+     */
+    public static LifecycleProfiler install() {
+        LifecycleProfiler profiler = new LifecycleProfiler();
+        active = profiler;
+        return profiler;
+    }
+
+    /**
+     * get the installed profiler
+     *
+     * @return the profiler, null if none is installed
+     */
+    public static LifecycleProfiler installed() {
+        return active;
+    }
+
+    /**
+     * stop recording, the spans recorded so far are kept
+     */
+    public void uninstall() {
+        if (active == this) {
+            active = null;
+        }
+    }
+
+    void record(Lifecycle component, LifeState phase, long startNanos, long endNanos, boolean failed) {
+        Thread thread = Thread.currentThread();
+        spans.add(new Span(component, phase, thread.getName(), thread.getId(), startNanos - origin,
+                endNanos - startNanos, failed));
+    }
+
+    /**
+     * declare that a component waits for another one, the critical path follows these edges
+     *
+     * @param component  the component
+     * @param dependency the component it depends on
+     */
+    public synchronized void recordDependency(Lifecycle component, Lifecycle dependency) {
+        dependencies.computeIfAbsent(component, key -> new LinkedHashSet<>()).add(dependency);
+    }
+
+    synchronized void recordMember(Lifecycle group, Lifecycle component) {
+        members.computeIfAbsent(group, key -> new LinkedHashSet<>()).add(component);
+    }
+
+    /**
+     * get the recorded spans, in start order
+     *
+     * @return the spans
+     */
+    public List<Span> spans() {
+        List<Span> sorted = new ArrayList<>(spans);
+        sorted.sort(Comparator.comparingLong(Span::startNanos));
+        return sorted;
+    }
+
+    /**
+     * get the chain of spans which determined the duration of a phase: starting from the span ending last, each
+     * step goes to the component it waited for which ended last
+     *
+     * @param phase the transitional state of the phase, e.g. {@code STARTING}
+     * @return the critical path, first span first
+     */
+    public List<Span> criticalPath(LifeState phase) {
+        Map<Lifecycle, Span> last = new IdentityHashMap<>();
+        Span end = null;
+        for (Span span : spans()) {
+            if (span.phase == phase) {
+                last.put(span.component, span);
+                if (end == null || span.endNanos() >= end.endNanos()) {
+                    end = span;
+                }
+            }
+        }
+        Map<Lifecycle, Set<Lifecycle>> waits = waits(phase);
+        List<Span> path = new ArrayList<>();
+        Set<Lifecycle> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Span step = end; step != null && visited.add(step.component); ) {
+            path.add(step);
+            Span previous = null;
+            for (Lifecycle waited : waits.getOrDefault(step.component, Collections.emptySet())) {
+                Span candidate = last.get(waited);
+                if (candidate != null && (previous == null || candidate.endNanos() > previous.endNanos())) {
+                    previous = candidate;
+                }
+            }
+            step = previous;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * the components each component waits for during a phase, dependencies are waited for when going up and
+     * dependents when going down
+     */
+    private synchronized Map<Lifecycle, Set<Lifecycle>> waits(LifeState phase) {
+        boolean down = phase == LifeState.SUSPENDING || phase == LifeState.DESTROYING;
+        Map<Lifecycle, Set<Lifecycle>> waits = new IdentityHashMap<>();
+        dependencies.forEach((component, direct) -> direct.forEach(dependency -> {
+            if (down) {
+                waits.computeIfAbsent(dependency, key -> new LinkedHashSet<>()).add(component);
+            } else {
+                waits.computeIfAbsent(component, key -> new LinkedHashSet<>()).add(dependency);
+            }
+        }));
+        members.forEach((group, components) ->
+                waits.computeIfAbsent(group, key -> new LinkedHashSet<>()).addAll(components));
+        return waits;
+    }
+
+    /**
+     * summarize the recorded spans: the time spent per phase, the slowest components and the critical path of
+     * every phase
+     *
+     * @return the summary
+     */
+    public String summary() {
+        List<Span> all = spans();
+        Map<LifeState, long[]> byPhase = new EnumMap<>(LifeState.class);
+        for (Span span : all) {
+            long[] totals = byPhase.computeIfAbsent(span.phase, key -> new long[2]);
+            totals[0]++;
+            totals[1] += span.durationNanos;
+        }
+        StringBuilder text = new StringBuilder();
+        text.append(all.size()).append(" spans").append(System.lineSeparator());
+        byPhase.forEach((phase, totals) -> text.append(String.format("%-12s %6d spans %10.3f ms cumulated%n",
+                phase, totals[0], totals[1] / 1e6)));
+        List<Span> slowest = new ArrayList<>(all);
+        slowest.sort(Comparator.comparingLong(Span::durationNanos).reversed());
+        text.append("slowest:").append(System.lineSeparator());
+        for (Span span : slowest.subList(0, Math.min(10, slowest.size()))) {
+            text.append("  ").append(span).append(System.lineSeparator());
+        }
+        for (LifeState phase : byPhase.keySet()) {
+            List<Span> path = criticalPath(phase);
+            long duration = path.get(path.size() - 1).endNanos() - path.get(0).startNanos;
+            text.append(String.format("critical path of %s, %.3f ms:%n", phase, duration / 1e6));
+            for (Span span : path) {
+                text.append("  ").append(span).append(System.lineSeparator());
+            }
+        }
+        return text.toString();
+    }
+
+    public void writeChromeTrace(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeChromeTrace(writer);
+        }
+    }
+
+    /**
+     * write the spans in the Chrome trace event format, one complete event per span and one row per thread
+     *
+     * @param writer the destination
+     * @throws IOException if fails to write
+     */
+    public void writeChromeTrace(Writer writer) throws IOException {
+        List<Span> all = spans();
+        Map<Long, String> threads = new LinkedHashMap<>();
+        Map<Lifecycle, String> names = new HashMap<>();
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean first = true;
+        for (Span span : all) {
+            threads.putIfAbsent(span.threadId, span.threadName);
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write("\n{\"name\":");
+            writeString(writer, names.computeIfAbsent(span.component, String::valueOf));
+            writer.write(",\"cat\":\"" + span.phase + "\",\"ph\":\"X\",\"pid\":1,\"tid\":" + span.threadId
+                    + ",\"ts\":" + micros(span.startNanos) + ",\"dur\":" + micros(span.durationNanos)
+                    + ",\"args\":{\"failed\":" + span.failed + "}}");
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            writer.write(first ? "\n" : ",\n");
+            first = false;
+            writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + thread.getKey()
+                    + ",\"args\":{\"name\":");
+            writeString(writer, thread.getValue());
+            writer.write("}}");
+        }
+        writer.write("\n]}\n");
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%d.%03d", nanos / 1000, nanos % 1000);
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * The time a component spent in one internal operation
+     */
+    public static final class Span {
+
+        private final Lifecycle component;
+
+        private final LifeState phase;
+
+        private final String threadName;
+
+        private final long threadId;
+
+        private final long startNanos;
+
+        private final long durationNanos;
+
+        private final boolean failed;
+
+        private Span(Lifecycle component, LifeState phase, String threadName, long threadId, long startNanos,
+                     long durationNanos, boolean failed) {
+            this.component = component;
+            this.phase = phase;
+            this.threadName = threadName;
+            this.threadId = threadId;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.failed = failed;
+        }
+
+        public Lifecycle component() {
+            return component;
+        }
+
+        /**
+         * get the phase, the transitional state the component was in
+         *
+         * @return the phase
+         */
+        public LifeState phase() {
+            return phase;
+        }
+
+        public String threadName() {
+            return threadName;
+        }
+
+        /**
+         * get the start of the span, relative to the installation of the profiler
+         *
+         * @return the start in nanoseconds
+         */
+        public long startNanos() {
+            return startNanos;
+        }
+
+        public long durationNanos() {
+            return durationNanos;
+        }
+
+        public long endNanos() {
+            return startNanos + durationNanos;
+        }
+
+        public boolean failed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s on %s: %.3f ms at +%.3f ms%s", component, phase, threadName,
+                    durationNanos / 1e6, startNanos / 1e6, failed ? " (failed)" : "");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The class LifecycleTasks, runs lifecycle operations on an executor
+ *
+ * @author ytbean
+ * @date 2026/10/19 17:40
+ */
+final class LifecycleTasks {
+
+    private LifecycleTasks() {
+    }
+
+    /**
+     * run a lifecycle operation on the executor.
+     * <p/>
+     * <p>The operation runs as a {@link ForkJoinPool.ManagedBlocker}, so that a fork-join pool compensates for the
+     * workers blocked in e.g. {@code start0()} instead of running out of parallelism.</p>
+     *
+     * @param operation the operation
+     * @param reached   the state an operation which returns has reached, rather than the state read afterwards
+     *                  which another thread may already have changed
+     * @param executor  the executor
+     * @return the future completed with the state reached, or exceptionally with a {@link LifecycleException}
+     */
+    static CompletableFuture<LifeState> submit(Operation operation, LifeState reached, Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor");
+        }
+        CompletableFuture<LifeState> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                Blocker blocker = new Blocker(operation);
+                try {
+                    ForkJoinPool.managedBlock(blocker);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (!blocker.done) {
+                        blocker.failure = e;
+                    }
+                }
+                if (blocker.failure == null) {
+                    future.complete(reached);
+                } else {
+                    future.completeExceptionally(LifecycleException.wrap(blocker.failure));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new LifecycleException("Rejected by executor", e));
+        }
+        return future;
+    }
+
+    private static final class Blocker implements ForkJoinPool.ManagedBlocker {
+
+        private final Operation operation;
+
+        private boolean done;
+
+        private Throwable failure;
+
+        private Blocker(Operation operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public boolean block() {
+            try {
+                operation.apply();
+            } catch (Throwable cause) {
+                failure = cause;
+            }
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    /**
+     * The interface Operation, one of the lifecycle operations
+     */
+    @FunctionalInterface
+    interface Operation {
+
+        void apply() throws LifecycleException;
+    }
+}
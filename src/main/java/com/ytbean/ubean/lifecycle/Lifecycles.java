@@ -0,0 +1,251 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * The class Lifecycles, bulk operations over large populations of components, e.g. one lifecycle per session.
+ * <p/>
+ * <p>The components are split into chunks processed in parallel on a fork-join pool, the common pool unless
+ * given. A failing component does not stop the operation, its exception is collected into the {@link BulkResult}.
+ * </p>
+ * <p/>
+ * <p>The chunks suspending, resuming or destroying components run as {@link ForkJoinPool.ManagedBlocker}s, so that
+ * the pool compensates for the workers blocked e.g. draining a component instead of being starved.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 21:00
+ */
+public final class Lifecycles {
+
+    /**
+     * the number of components below which a chunk is processed without being split further
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private Lifecycles() {
+    }
+
+    /**
+     * suspend the started components
+     *
+     * @param components the components
+     * @return the result, the components not started are skipped
+     */
+    public static BulkResult suspendAll(Collection<? extends Lifecycle> components) {
+        return suspendAll(components, ForkJoinPool.commonPool());
+    }
+
+    public static BulkResult suspendAll(Collection<? extends Lifecycle> components, ForkJoinPool pool) {
+        return apply(components, pool, component -> component.state() == LifeState.STARTED, Lifecycle::suspend);
+    }
+
+    /**
+     * resume the suspended components
+     *
+     * @param components the components
+     * @return the result, the components not suspended are skipped
+     */
+    public static BulkResult resumeAll(Collection<? extends Lifecycle> components) {
+        return resumeAll(components, ForkJoinPool.commonPool());
+    }
+
+    public static BulkResult resumeAll(Collection<? extends Lifecycle> components, ForkJoinPool pool) {
+        return apply(components, pool, component -> component.state() == LifeState.SUSPENDED, Lifecycle::resume);
+    }
+
+    /**
+     * destroy the components matching a predicate
+     *
+     * @param components the components
+     * @param predicate  selects the components to destroy
+     * @return the result, the components not matching are skipped
+     */
+    public static BulkResult destroyAll(Collection<? extends Lifecycle> components,
+                                        Predicate<? super Lifecycle> predicate) {
+        return destroyAll(components, predicate, ForkJoinPool.commonPool());
+    }
+
+    public static BulkResult destroyAll(Collection<? extends Lifecycle> components,
+                                        Predicate<? super Lifecycle> predicate, ForkJoinPool pool) {
+        return apply(components, pool, predicate, Lifecycle::destroy);
+    }
+
+    /**
+     * count the components in each state
+     *
+     * @param components the components
+     * @return the number of components in each state, the states without components are absent
+     */
+    public static Map<LifeState, Integer> countByState(Collection<? extends Lifecycle> components) {
+        return countByState(components, ForkJoinPool.commonPool());
+    }
+
+    public static Map<LifeState, Integer> countByState(Collection<? extends Lifecycle> components,
+                                                       ForkJoinPool pool) {
+        Lifecycle[] array = toArray(components);
+        int[] counts = pool.invoke(new Chunk<>(array, 0, array.length, (chunk, from, to) -> {
+            int[] partial = new int[LifeState.values().length];
+            for (int i = from; i < to; i++) {
+                partial[chunk[i].state().ordinal()]++;
+            }
+            return partial;
+        }, (left, right) -> {
+            for (int i = 0; i < left.length; i++) {
+                left[i] += right[i];
+            }
+            return left;
+        }));
+        Map<LifeState, Integer> byState = new EnumMap<>(LifeState.class);
+        for (LifeState state : LifeState.values()) {
+            if (counts[state.ordinal()] != 0) {
+                byState.put(state, counts[state.ordinal()]);
+            }
+        }
+        return byState;
+    }
+
+    private static BulkResult apply(Collection<? extends Lifecycle> components, ForkJoinPool pool,
+                                    Predicate<? super Lifecycle> predicate, Operation operation) {
+        Lifecycle[] array = toArray(components);
+        if (array.length == 0) {
+            return BulkResult.EMPTY;
+        }
+        return pool.invoke(new Chunk<>(array, 0, array.length, (chunk, from, to) -> blocking(() -> {
+            int succeeded = 0;
+            int skipped = 0;
+            Map<Lifecycle, LifecycleException> failures = null;
+            for (int i = from; i < to; i++) {
+                Lifecycle component = chunk[i];
+                if (!predicate.test(component)) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    operation.apply(component);
+                    succeeded++;
+                } catch (LifecycleException e) {
+                    if (failures == null) {
+                        failures = new LinkedHashMap<>();
+                    }
+                    failures.put(component, e);
+                }
+            }
+            return new BulkResult(succeeded, skipped, failures == null ? Collections.emptyMap() : failures);
+        }), BulkResult::merge));
+    }
+
+    private static <R> R blocking(Supplier<R> leaf) {
+        LeafBlocker<R> blocker = new LeafBlocker<>(leaf);
+        try {
+            ForkJoinPool.managedBlock(blocker);
+        } catch (InterruptedException e) {
+            //the leaf catches its own failures, only restore the flag
+            Thread.currentThread().interrupt();
+        }
+        return blocker.result;
+    }
+
+    private static Lifecycle[] toArray(Collection<? extends Lifecycle> components) {
+        return components.toArray(new Lifecycle[0]);
+    }
+
+    private interface Operation {
+
+        void apply(Lifecycle component) throws LifecycleException;
+    }
+
+    private interface Leaf<R> {
+
+        R apply(Lifecycle[] components, int from, int to);
+    }
+
+    /**
+     * runs a leaf that may block, once
+     */
+    private static final class LeafBlocker<R> implements ForkJoinPool.ManagedBlocker {
+
+        private final Supplier<R> leaf;
+
+        private boolean done;
+
+        private R result;
+
+        private LeafBlocker(Supplier<R> leaf) {
+            this.leaf = leaf;
+        }
+
+        @Override
+        public boolean block() {
+            result = leaf.get();
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    /**
+     * a range of the components, split in halves until small enough to be processed by the leaf function
+     */
+    private static final class Chunk<R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Lifecycle[] components;
+
+        private final int from;
+
+        private final int to;
+
+        private final Leaf<R> leaf;
+
+        private final BinaryOperator<R> merger;
+
+        private Chunk(Lifecycle[] components, int from, int to, Leaf<R> leaf, BinaryOperator<R> merger) {
+            this.components = components;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.merger = merger;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return leaf.apply(components, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Chunk<R> right = new Chunk<>(components, middle, to, leaf, merger);
+            right.fork();
+            R left = new Chunk<>(components, from, middle, leaf, merger).compute();
+            return merger.apply(left, right.join());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * The class ListenerRegistry, the listeners of a lifecycle indexed by the state they want to be notified of.
+ * <p/>
+ * <p>Each new state owns an array of subscriptions, each carrying a bitmask of the old states it accepts, so a state
+ * change only visits the listeners interested in its new state. The arrays are copied on write: subscribing is rare
+ * while state changes read them without locking.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 20:05
+ */
+final class ListenerRegistry {
+
+    static final long ALL_STATES = (1L << LifeState.values().length) - 1;
+
+    private static final Subscription[] NONE = new Subscription[0];
+
+    private volatile Subscription[][] byNewState;
+
+    ListenerRegistry() {
+        Subscription[][] initial = new Subscription[LifeState.values().length][];
+        Arrays.fill(initial, NONE);
+        this.byNewState = initial;
+    }
+
+    static long mask(Set<LifeState> states) {
+        long mask = 0;
+        for (LifeState state : states) {
+            mask |= 1L << state.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * subscribe a listener to the changes from one of {@code oldStates} to one of {@code newStates}, the masks of a
+     * listener subscribed more than once are merged so that it is still notified once per change
+     */
+    synchronized void add(LifeStateListener listener, long oldStates, long newStates) {
+        Subscription[][] updated = byNewState.clone();
+        for (int ordinal = 0; ordinal < updated.length; ordinal++) {
+            if ((newStates & 1L << ordinal) == 0) {
+                continue;
+            }
+            Subscription[] subscriptions = updated[ordinal];
+            int index = indexOf(subscriptions, listener);
+            if (index < 0) {
+                subscriptions = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+                subscriptions[subscriptions.length - 1] = new Subscription(listener, oldStates);
+            } else {
+                subscriptions = subscriptions.clone();
+                subscriptions[index] = new Subscription(listener, subscriptions[index].oldStates | oldStates);
+            }
+            updated[ordinal] = subscriptions;
+        }
+        byNewState = updated;
+    }
+
+    /**
+     * unsubscribe a listener from every state
+     */
+    synchronized void remove(LifeStateListener listener) {
+        Subscription[][] updated = byNewState.clone();
+        for (int ordinal = 0; ordinal < updated.length; ordinal++) {
+            Subscription[] subscriptions = updated[ordinal];
+            int index = indexOf(subscriptions, listener);
+            if (index >= 0) {
+                Subscription[] shrunk = new Subscription[subscriptions.length - 1];
+                System.arraycopy(subscriptions, 0, shrunk, 0, index);
+                System.arraycopy(subscriptions, index + 1, shrunk, index, shrunk.length - index);
+                updated[ordinal] = shrunk.length == 0 ? NONE : shrunk;
+            }
+        }
+        byNewState = updated;
+    }
+
+    Subscription[] subscriptions(LifeState newState) {
+        return byNewState[newState.ordinal()];
+    }
+
+    private static int indexOf(Subscription[] subscriptions, LifeStateListener listener) {
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i].listener.equals(listener)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static final class Subscription {
+
+        final LifeStateListener listener;
+
+        final long oldStates;
+
+        Subscription(LifeStateListener listener, long oldStates) {
+            this.listener = listener;
+            this.oldStates = oldStates;
+        }
+
+        boolean accepts(LifeState oldState) {
+            return (oldStates & 1L << oldState.ordinal()) != 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class ListenerStats, the timing of the notifications delivered to one {@link LifeStateListener}
+ *
+ * @author ytbean
+ * @date 2026/10/19 19:30
+ */
+public final class ListenerStats {
+
+    private final LifeStateListener listener;
+
+    private long invocations;
+
+    private long failures;
+
+    private long slowInvocations;
+
+    private long totalNanos;
+
+    private long maxNanos;
+
+    ListenerStats(LifeStateListener listener) {
+        this.listener = listener;
+    }
+
+    synchronized void record(long nanos, boolean failed, boolean slow) {
+        invocations++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+        if (failed) {
+            failures++;
+        }
+        if (slow) {
+            slowInvocations++;
+        }
+    }
+
+    public LifeStateListener listener() {
+        return listener;
+    }
+
+    public synchronized long invocations() {
+        return invocations;
+    }
+
+    /**
+     * get the number of notifications which threw an exception
+     *
+     * @return the number of failures
+     */
+    public synchronized long failures() {
+        return failures;
+    }
+
+    /**
+     * get the number of notifications which took longer than the slow listener threshold
+     *
+     * @return the number of slow notifications
+     */
+    public synchronized long slowInvocations() {
+        return slowInvocations;
+    }
+
+    public synchronized long totalTime(TimeUnit unit) {
+        return unit.convert(totalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized long maxTime(TimeUnit unit) {
+        return unit.convert(maxNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ListenerStats{listener=" + listener + ", invocations=" + invocations + ", failures=" + failures
+                + ", slow=" + slowInvocations + ", total=" + TimeUnit.NANOSECONDS.toMicros(totalNanos)
+                + "us, max=" + TimeUnit.NANOSECONDS.toMicros(maxNanos) + "us}";
+    }
+}
@@ -0,0 +1,451 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The class ManagedExecutor, an executor whose threads follow its lifecycle.
+ * <p/>
+ * <p>Tasks are queued, and a dispatcher thread hands them to the worker threads while at most {@code concurrency}
+ * of them run. Suspending pauses the dispatch: the running tasks complete, the queued ones wait for
+ * {@code resume()}. Destroying stops accepting tasks and runs the queued ones until the queue is drained or the
+ * shutdown timeout elapses, after which the remaining tasks are dropped and the workers interrupted.</p>
+ * <p/>
+ * <p>Tasks may be submitted as soon as the executor is created, they run once it is started. The workers are
+ * platform threads, or virtual threads when {@link #virtual(String, int)} is used on a JVM supporting them.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/20 01:00
+ */
+public class ManagedExecutor extends AbstractLifecycle implements Executor {
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(ManagedExecutor.class);
+
+    private final String name;
+
+    private final int concurrency;
+
+    private final boolean virtualThreads;
+
+    private final BlockingDeque<Task> queue = new LinkedBlockingDeque<>();
+
+    private final Semaphore permits;
+
+    private final ReentrantLock pauseLock = new ReentrantLock();
+
+    private final Condition unpaused = pauseLock.newCondition();
+
+    private final Condition drained = pauseLock.newCondition();
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * the tasks accepted and not completed yet, queued, held by the dispatcher or running
+     */
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder queueNanos = new LongAdder();
+
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder runNanos = new LongAdder();
+
+    private volatile boolean paused;
+
+    private volatile long shutdownTimeoutNanos = TimeUnit.SECONDS.toNanos(30);
+
+    private volatile long dropped;
+
+    private volatile Thread dispatcher;
+
+    private volatile ExecutorService workers;
+
+    /**
+     * create an executor running its tasks on platform threads
+     *
+     * @param name        the name of the executor, prefix of its thread names
+     * @param concurrency the maximum number of tasks running at once
+     */
+    public ManagedExecutor(String name, int concurrency) {
+        this(name, concurrency, false);
+    }
+
+    private ManagedExecutor(String name, int concurrency, boolean virtualThreads) {
+        if (name == null) {
+            throw new NullPointerException("name");
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        this.name = name;
+        this.concurrency = concurrency;
+        this.virtualThreads = virtualThreads;
+        this.permits = new Semaphore(concurrency);
+    }
+
+    /**
+     * create an executor running every task on a virtual thread when the JVM supports them (Java 21+), on platform
+     * threads otherwise. The concurrency still bounds the number of tasks running at once
+     *
+     * @param name        the name of the executor, prefix of its thread names
+     * @param concurrency the maximum number of tasks running at once
+     * @return the executor
+     */
+    public static ManagedExecutor virtual(String name, int concurrency) {
+        return new ManagedExecutor(name, concurrency, VirtualThreads.SUPPORTED);
+    }
+
+    /**
+     * check whether the workers are virtual threads
+     *
+     * @return true if so
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * set how long destroying waits for the queued and running tasks
+     *
+     * @param timeout the timeout
+     * @param unit    the unit of the timeout
+     */
+    public void setShutdownTimeout(long timeout, TimeUnit unit) {
+        this.shutdownTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("command");
+        }
+        LifeState state = state();
+        if (state == LifeState.DESTROYING || state == LifeState.DESTROYED || state == LifeState.SICK) {
+            throw new RejectedExecutionException(name + " is " + state.name());
+        }
+        outstanding.incrementAndGet();
+        queue.offer(new Task(command));
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public int activeCount() {
+        return active.get();
+    }
+
+    public long completedTasks() {
+        return completed.sum();
+    }
+
+    /**
+     * get the number of tasks which threw an exception, counted as completed as well
+     *
+     * @return the number of tasks
+     */
+    public long failedTasks() {
+        return failed.sum();
+    }
+
+    /**
+     * get the number of queued tasks dropped by the last destroy since the drain timed out
+     *
+     * @return the number of tasks
+     */
+    public long droppedTasks() {
+        return dropped;
+    }
+
+    /**
+     * get the average time the completed tasks spent queued
+     *
+     * @param unit the unit
+     * @return the average time
+     */
+    public long averageQueueLatency(TimeUnit unit) {
+        long count = completed.sum();
+        return count == 0 ? 0 : unit.convert(queueNanos.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    public long maxQueueLatency(TimeUnit unit) {
+        return unit.convert(maxQueueNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * get the average time the completed tasks took to run
+     *
+     * @param unit the unit
+     * @return the average time
+     */
+    public long averageRunTime(TimeUnit unit) {
+        long count = completed.sum();
+        return count == 0 ? 0 : unit.convert(runNanos.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    protected void init0() throws LifecycleException {
+        //threads are created when started
+    }
+
+    @Override
+    protected void start0() throws LifecycleException {
+        ThreadFactory factory = virtualThreads ? VirtualThreads.factory(name) : platformThreads();
+        workers = virtualThreads ? Executors.newCachedThreadPool(factory) : Executors.newFixedThreadPool(concurrency,
+                factory);
+        paused = false;
+        Thread thread = new Thread(this::dispatch, name + "-dispatcher");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+    }
+
+    @Override
+    protected void suspend0() throws LifecycleException {
+        paused = true;
+    }
+
+    @Override
+    protected void resume0() throws LifecycleException {
+        setPaused(false);
+    }
+
+    @Override
+    protected void destroy0() throws LifecycleException {
+        Thread thread = dispatcher;
+        ExecutorService current = workers;
+        if (thread == null || current == null) {
+            dropped = dropQueued();
+            return;
+        }
+        //draining needs the dispatch, even if suspended
+        setPaused(false);
+        pauseLock.lock();
+        try {
+            long remaining = shutdownTimeoutNanos;
+            while (outstanding.get() != 0 && remaining > 0) {
+                remaining = drained.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pauseLock.unlock();
+        }
+        thread.interrupt();
+        current.shutdownNow();
+        try {
+            //the dispatcher puts back the task it holds before exiting
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped = dropQueued();
+        dispatcher = null;
+        workers = null;
+        if (dropped != 0 || active.get() != 0) {
+            logger.warn("{} dropped {} queued tasks and interrupted {} running ones after {}ms", name, dropped,
+                    active.get(), TimeUnit.NANOSECONDS.toMillis(shutdownTimeoutNanos));
+        }
+    }
+
+    private long dropQueued() {
+        long count = 0;
+        while (queue.poll() != null) {
+            outstanding.decrementAndGet();
+            count++;
+        }
+        return count;
+    }
+
+    private void setPaused(boolean paused) {
+        pauseLock.lock();
+        try {
+            this.paused = paused;
+            unpaused.signalAll();
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        ExecutorService current = workers;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                awaitUnpaused();
+                Task task = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (task == null) {
+                    continue;
+                }
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    queue.offerFirst(task);
+                    return;
+                }
+                //suspended while waiting for a permit, the task goes back to the head of the queue
+                if (paused) {
+                    permits.release();
+                    queue.offerFirst(task);
+                    continue;
+                }
+                active.incrementAndGet();
+                try {
+                    current.execute(() -> run(task));
+                } catch (RejectedExecutionException e) {
+                    active.decrementAndGet();
+                    permits.release();
+                    queue.offerFirst(task);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            //destroyed
+        }
+    }
+
+    private void awaitUnpaused() throws InterruptedException {
+        if (!paused) {
+            return;
+        }
+        pauseLock.lock();
+        try {
+            while (paused) {
+                unpaused.await();
+            }
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    private void run(Task task) {
+        long started = System.nanoTime();
+        long waited = started - task.enqueued;
+        queueNanos.add(waited);
+        maxQueueNanos.accumulate(waited);
+        try {
+            task.command.run();
+        } catch (Throwable cause) {
+            failed.increment();
+            logger.error("task of {} cause exception", name, cause);
+        } finally {
+            runNanos.add(System.nanoTime() - started);
+            completed.increment();
+            active.decrementAndGet();
+            permits.release();
+            if (outstanding.decrementAndGet() == 0) {
+                signalDrained();
+            }
+        }
+    }
+
+    private void signalDrained() {
+        pauseLock.lock();
+        try {
+            drained.signalAll();
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    private ThreadFactory platformThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "ManagedExecutor{name=" + name + ", state=" + state() + ", queued=" + queue.size() + ", active="
+                + active.get() + '}';
+    }
+
+    private static final class Task {
+
+        private final Runnable command;
+
+        private final long enqueued = System.nanoTime();
+
+        private Task(Runnable command) {
+            this.command = command;
+        }
+    }
+
+    /**
+     * Virtual threads through reflection, since the sources target Java 8
+     */
+    private static final class VirtualThreads {
+
+        private static final Method OF_VIRTUAL;
+
+        private static final Method NAME;
+
+        private static final Method FACTORY;
+
+        private static final boolean SUPPORTED;
+
+        static {
+            Method ofVirtual = null;
+            Method name = null;
+            Method factory = null;
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                name = builder.getMethod("name", String.class, long.class);
+                factory = builder.getMethod("factory");
+            } catch (ReflectiveOperationException e) {
+                //before Java 21
+            }
+            OF_VIRTUAL = ofVirtual;
+            NAME = name;
+            FACTORY = factory;
+            SUPPORTED = factory != null;
+        }
+
+        private static ThreadFactory factory(String prefix) throws LifecycleException {
+            try {
+                Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix + "-", 1L);
+                return (ThreadFactory) FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw LifecycleException.wrap(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The class MemoryPressureController, suspends components when the heap gets close to full and resumes them once
+ * the pressure is gone.
+ * <p/>
+ * <p>The pressure is the highest ratio of used to maximum memory among the heap pools, measured right after the
+ * last collection when the JVM supports it, since the live set is what matters. It is evaluated again after every
+ * garbage collection and when a pool crosses its usage threshold, set at the high watermark.</p>
+ * <p/>
+ * <p>Above the high watermark, the started components of the lowest priority are suspended, one priority at a time
+ * per evaluation, so that a collection can show whether it was enough. Below the low watermark, the components
+ * suspended by the controller are resumed, highest priority first, one priority per collection: the usage measured
+ * after a collection is the only one telling whether the resumed components fit. Between both watermarks nothing
+ * changes, so components don't flap. The evaluations run on a dedicated thread, never on the notification
+ * threads.</p>
+ * <p/>
+ * <p>The usage thresholds of the heap pools are shared by the whole JVM, the ones found when started are restored
+ * when destroyed.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/20 00:30
+ */
+public class MemoryPressureController extends AbstractLifecycle {
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(MemoryPressureController.class);
+
+    private static final String GC_NOTIFICATION = "com.sun.management.gc.notification";
+
+    private final double highWatermark;
+
+    private final double lowWatermark;
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    /**
+     * the components suspended by this controller, the only ones it resumes
+     */
+    private final Set<Lifecycle> suspended = ConcurrentHashMap.newKeySet();
+
+    private final NotificationListener listener = this::onNotification;
+
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+
+    /**
+     * the usage and collection usage thresholds of the heap pools before being started, by pool name, -1 if
+     * unsupported
+     */
+    private final Map<String, long[]> previousThresholds = new HashMap<>();
+
+    /**
+     * whether garbage collection notifications are received, without them resuming can't wait for a collection
+     */
+    private volatile boolean collectionNotified;
+
+    /**
+     * set once a priority is resumed, until the next collection
+     */
+    private volatile boolean awaitingCollection;
+
+    private volatile ExecutorService evaluator;
+
+    /**
+     * create a controller
+     *
+     * @param highWatermark the heap usage ratio above which components are suspended, e.g. 0.85
+     * @param lowWatermark  the heap usage ratio below which they are resumed, e.g. 0.7
+     */
+    public MemoryPressureController(double highWatermark, double lowWatermark) {
+        if (!(lowWatermark > 0 && lowWatermark < highWatermark && highWatermark < 1)) {
+            throw new IllegalArgumentException("watermarks must satisfy 0 < low < high < 1");
+        }
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    /**
+     * register a component
+     *
+     * @param component the component
+     * @param priority  the priority, the components of the lowest priority are suspended first
+     * @return this controller
+     */
+    public MemoryPressureController register(Lifecycle component, int priority) {
+        if (component == null) {
+            throw new NullPointerException("component");
+        }
+        registrations.add(new Registration(component, priority));
+        return this;
+    }
+
+    /**
+     * evaluate the pressure again, asynchronously
+     */
+    public void reevaluate() {
+        ExecutorService current = evaluator;
+        if (current != null) {
+            try {
+                current.execute(this::evaluate);
+            } catch (RejectedExecutionException e) {
+                //being destroyed
+            }
+        }
+    }
+
+    /**
+     * get the memory pressure
+     *
+     * @return the ratio of used to maximum memory of the fullest heap pool
+     */
+    protected double pressure() {
+        double pressure = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isValid()) {
+                continue;
+            }
+            MemoryUsage usage = pool.isCollectionUsageThresholdSupported() ? pool.getCollectionUsage()
+                    : pool.getUsage();
+            if (usage != null && usage.getMax() > 0) {
+                pressure = Math.max(pressure, (double) usage.getUsed() / usage.getMax());
+            }
+        }
+        return pressure;
+    }
+
+    @Override
+    protected void init0() throws LifecycleException {
+        //nothing to init
+    }
+
+    @Override
+    protected void start0() throws LifecycleException {
+        evaluator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("lifecycle-memory-pressure");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() != MemoryType.HEAP || max <= 0) {
+                continue;
+            }
+            previousThresholds.put(pool.getName(), new long[]{
+                    pool.isUsageThresholdSupported() ? pool.getUsageThreshold() : -1,
+                    pool.isCollectionUsageThresholdSupported() ? pool.getCollectionUsageThreshold() : -1});
+            if (pool.isUsageThresholdSupported()) {
+                pool.setUsageThreshold((long) (max * highWatermark));
+            }
+            if (pool.isCollectionUsageThresholdSupported()) {
+                pool.setCollectionUsageThreshold((long) (max * highWatermark));
+            }
+        }
+        subscribe((NotificationEmitter) ManagementFactory.getMemoryMXBean());
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                subscribe((NotificationEmitter) collector);
+                collectionNotified = true;
+            }
+        }
+        reevaluate();
+    }
+
+    @Override
+    protected void suspend0() throws LifecycleException {
+        //notifications are ignored while suspended
+    }
+
+    @Override
+    protected void resume0() throws LifecycleException {
+        reevaluate();
+    }
+
+    @Override
+    protected void destroy0() throws LifecycleException {
+        synchronized (emitters) {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(listener);
+                } catch (ListenerNotFoundException e) {
+                    //already removed
+                }
+            }
+            emitters.clear();
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long[] previous = previousThresholds.get(pool.getName());
+            if (previous == null || !pool.isValid()) {
+                continue;
+            }
+            if (previous[0] >= 0) {
+                pool.setUsageThreshold(previous[0]);
+            }
+            if (previous[1] >= 0) {
+                pool.setCollectionUsageThreshold(previous[1]);
+            }
+        }
+        previousThresholds.clear();
+        ExecutorService current = evaluator;
+        if (current != null) {
+            current.shutdown();
+            evaluator = null;
+        }
+        suspended.clear();
+    }
+
+    private void subscribe(NotificationEmitter emitter) {
+        synchronized (emitters) {
+            emitter.addNotificationListener(listener, null, null);
+            emitters.add(emitter);
+        }
+    }
+
+    private void onNotification(Notification notification, Object handback) {
+        String type = notification.getType();
+        if (GC_NOTIFICATION.equals(type)) {
+            awaitingCollection = false;
+        }
+        if (GC_NOTIFICATION.equals(type) || MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)
+                || MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type)) {
+            reevaluate();
+        }
+    }
+
+    /**
+     * suspend or resume one priority, depending on the pressure
+     */
+    private void evaluate() {
+        if (state() != LifeState.STARTED) {
+            return;
+        }
+        double pressure = pressure();
+        if (pressure >= highWatermark) {
+            TreeMap<Integer, List<Lifecycle>> started = byPriority(LifeState.STARTED);
+            if (!started.isEmpty()) {
+                logger.warn("heap pressure {} above {}, suspending the components of priority {}", pressure,
+                        highWatermark, started.firstKey());
+                for (Lifecycle component : started.firstEntry().getValue()) {
+                    try {
+                        component.suspend();
+                        suspended.add(component);
+                    } catch (LifecycleException e) {
+                        logger.warn("failed to suspend {} under memory pressure", component.toString(), e);
+                    }
+                }
+            }
+        } else if (pressure <= lowWatermark && !suspended.isEmpty() && !awaitingCollection) {
+            TreeMap<Integer, List<Lifecycle>> paused = byPriority(LifeState.SUSPENDED);
+            paused.values().forEach(components -> components.removeIf(component -> !suspended.contains(component)));
+            paused.values().removeIf(List::isEmpty);
+            if (paused.isEmpty()) {
+                suspended.clear();
+                return;
+            }
+            logger.info("heap pressure {} below {}, resuming the components of priority {}", pressure,
+                    lowWatermark, paused.lastKey());
+            for (Lifecycle component : paused.lastEntry().getValue()) {
+                suspended.remove(component);
+                try {
+                    component.resume();
+                } catch (LifecycleException e) {
+                    logger.warn("failed to resume {} after memory pressure", component.toString(), e);
+                }
+            }
+            //the next priority is resumed after a collection, if the pressure still allows it
+            awaitingCollection = collectionNotified;
+        }
+    }
+
+    private TreeMap<Integer, List<Lifecycle>> byPriority(LifeState state) {
+        TreeMap<Integer, List<Lifecycle>> byPriority = new TreeMap<>();
+        registrations.stream().filter(registration -> registration.component.state() == state)
+                .forEach(registration -> byPriority.computeIfAbsent(registration.priority,
+                        key -> new ArrayList<>()).add(registration.component));
+        return byPriority;
+    }
+
+    private static final class Registration {
+
+        private final Lifecycle component;
+
+        private final int priority;
+
+        private Registration(Lifecycle component, int priority) {
+            this.component = component;
+            this.priority = priority;
+        }
+    }
+}
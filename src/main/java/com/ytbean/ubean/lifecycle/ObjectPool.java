@@ -0,0 +1,519 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The class ObjectPool, a pool of expensive objects, such as large buffers or parsers, whose memory follows the
+ * lifecycle of the pool.
+ * <p/>
+ * <p>Starting the pool fills it with {@code initialSize} objects. Suspending it disposes of the pooled objects,
+ * resuming fills it again, and destroying it disposes of all of them for good. Objects acquired while the pool is
+ * not started are created on demand and disposed of when released; the objects held by the callers are never
+ * disposed of by the pool.</p>
+ * <p/>
+ * <p>Each thread caches a few released objects, taken back without contention; the others go to a shared lock-free
+ * stack of at most {@code maxSize} objects, and are disposed of beyond that.</p>
+ *
+ * @param <T> the type of the objects
+ * @author ytbean
+ * @date 2026/10/20 03:00
+ */
+public class ObjectPool<T> extends AbstractLifecycle {
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(ObjectPool.class);
+
+    private final Supplier<? extends T> factory;
+
+    private final int initialSize;
+
+    private final int maxSize;
+
+    /**
+     * the thread caches, renewed on every start so that caches left bound to threads by a previous run are dropped
+     */
+    private volatile Generation generation = new Generation();
+
+    private final AtomicReference<Node<T>> overflow = new AtomicReference<>();
+
+    private final AtomicInteger overflowSize = new AtomicInteger();
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder disposed = new LongAdder();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile Consumer<? super T> reset = object -> {
+    };
+
+    private volatile Consumer<? super T> disposer = object -> {
+    };
+
+    private volatile int threadCacheSize = 8;
+
+    /**
+     * create a pool
+     *
+     * @param factory     creates the objects
+     * @param initialSize the number of objects created when started or resumed
+     * @param maxSize     the maximum number of objects in the shared stack
+     */
+    public ObjectPool(Supplier<? extends T> factory, int initialSize, int maxSize) {
+        if (factory == null) {
+            throw new NullPointerException("factory");
+        }
+        if (initialSize < 0 || maxSize < initialSize) {
+            throw new IllegalArgumentException("illegal sizes " + initialSize + ".." + maxSize);
+        }
+        this.factory = factory;
+        this.initialSize = initialSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * create a pool of direct buffers, freed as soon as the pool disposes of them rather than when collected
+     *
+     * @param capacity    the capacity of the buffers
+     * @param initialSize the number of buffers allocated when started or resumed
+     * @param maxSize     the maximum number of buffers in the shared stack
+     * @return the pool
+     */
+    public static ObjectPool<ByteBuffer> directBuffers(int capacity, int initialSize, int maxSize) {
+        return new ObjectPool<ByteBuffer>(() -> ByteBuffer.allocateDirect(capacity), initialSize, maxSize)
+                .reset(ByteBuffer::clear)
+                .disposer(BufferCleaner::free);
+    }
+
+    /**
+     * create a pool of heap buffers
+     *
+     * @param capacity    the capacity of the buffers
+     * @param initialSize the number of buffers allocated when started or resumed
+     * @param maxSize     the maximum number of buffers in the shared stack
+     * @return the pool
+     */
+    public static ObjectPool<ByteBuffer> heapBuffers(int capacity, int initialSize, int maxSize) {
+        return new ObjectPool<ByteBuffer>(() -> ByteBuffer.allocate(capacity), initialSize, maxSize)
+                .reset(ByteBuffer::clear);
+    }
+
+    /**
+     * set the action preparing a released object for its next use
+     *
+     * @param reset the action
+     * @return this pool
+     */
+    public ObjectPool<T> reset(Consumer<? super T> reset) {
+        if (reset == null) {
+            throw new NullPointerException("reset");
+        }
+        this.reset = reset;
+        return this;
+    }
+
+    /**
+     * set the action releasing the resources of an object the pool no longer keeps
+     *
+     * @param disposer the action
+     * @return this pool
+     */
+    public ObjectPool<T> disposer(Consumer<? super T> disposer) {
+        if (disposer == null) {
+            throw new NullPointerException("disposer");
+        }
+        this.disposer = disposer;
+        return this;
+    }
+
+    /**
+     * set the number of objects each thread caches, applied to the threads using the pool for the first time
+     *
+     * @param threadCacheSize the number of objects, 0 to only use the shared stack
+     * @return this pool
+     */
+    public ObjectPool<T> threadCacheSize(int threadCacheSize) {
+        if (threadCacheSize < 0) {
+            throw new IllegalArgumentException("threadCacheSize must not be negative");
+        }
+        this.threadCacheSize = threadCacheSize;
+        return this;
+    }
+
+    /**
+     * take an object from the pool, or create one if it is empty
+     *
+     * @return the object, owned by the caller until released
+     */
+    public T acquire() {
+        T object = generation.caches.get().poll();
+        if (object == null) {
+            object = pop();
+        }
+        if (object != null) {
+            hits.increment();
+            return object;
+        }
+        misses.increment();
+        return create();
+    }
+
+    /**
+     * give an object back to the pool, disposed of if the pool is full or not started
+     *
+     * @param object the object, not used by the caller anymore
+     */
+    public void release(T object) {
+        if (object == null) {
+            throw new NullPointerException("object");
+        }
+        if (state() != LifeState.STARTED) {
+            dispose(object);
+            return;
+        }
+        reset.accept(object);
+        if (!generation.caches.get().offer(object) && !push(object)) {
+            dispose(object);
+            return;
+        }
+        //suspended or destroyed meanwhile, the pool may already be emptied
+        if (state() != LifeState.STARTED) {
+            clear();
+        }
+    }
+
+    /**
+     * get the number of objects in the pool, approximate while it is used
+     *
+     * @return the number of objects
+     */
+    public int pooled() {
+        int count = overflowSize.get();
+        for (ThreadCache<T> cache : generation.registry) {
+            count += cache.size();
+        }
+        return count;
+    }
+
+    public long created() {
+        return created.sum();
+    }
+
+    public long disposed() {
+        return disposed.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    protected void init0() throws LifecycleException {
+        //filled when started
+    }
+
+    @Override
+    protected void start0() throws LifecycleException {
+        generation = new Generation();
+        fill();
+    }
+
+    @Override
+    protected void suspend0() throws LifecycleException {
+        clear();
+    }
+
+    @Override
+    protected void resume0() throws LifecycleException {
+        fill();
+    }
+
+    @Override
+    protected void destroy0() throws LifecycleException {
+        clear();
+    }
+
+    private void fill() {
+        for (int i = overflowSize.get(); i < initialSize; i++) {
+            if (!push(create())) {
+                return;
+            }
+        }
+    }
+
+    private void clear() {
+        int count = 0;
+        for (Iterator<ThreadCache<T>> caches = generation.registry.iterator(); caches.hasNext(); ) {
+            ThreadCache<T> cache = caches.next();
+            count += empty(cache);
+            if (cache.isOrphaned()) {
+                caches.remove();
+            }
+        }
+        T object;
+        while ((object = pop()) != null) {
+            dispose(object);
+            count++;
+        }
+        if (count != 0) {
+            logger.debug("{} disposed of {} pooled objects", toString(), count);
+        }
+    }
+
+    private int empty(ThreadCache<T> cache) {
+        int count = 0;
+        for (int i = 0; i < cache.slots.length(); i++) {
+            T object = cache.slots.getAndSet(i, null);
+            if (object != null) {
+                dispose(object);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private T create() {
+        T object = factory.get();
+        created.increment();
+        return object;
+    }
+
+    private void dispose(T object) {
+        try {
+            disposer.accept(object);
+        } catch (RuntimeException e) {
+            logger.warn("{} failed to dispose of {}", toString(), object, e);
+        }
+        disposed.increment();
+    }
+
+    private boolean push(T object) {
+        if (overflowSize.incrementAndGet() > maxSize) {
+            overflowSize.decrementAndGet();
+            return false;
+        }
+        Node<T> node = new Node<>(object);
+        do {
+            node.next = overflow.get();
+        } while (!overflow.compareAndSet(node.next, node));
+        return true;
+    }
+
+    private T pop() {
+        Node<T> head;
+        do {
+            head = overflow.get();
+            if (head == null) {
+                return null;
+            }
+        } while (!overflow.compareAndSet(head, head.next));
+        overflowSize.decrementAndGet();
+        return head.object;
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectPool{state=" + state() + ", pooled=" + pooled() + ", created=" + created.sum() + '}';
+    }
+
+    /**
+     * The class Generation, the thread caches of one run of the pool
+     */
+    private final class Generation {
+
+        private final ThreadLocal<ThreadCache<T>> caches = ThreadLocal.withInitial(this::newCache);
+
+        /**
+         * the caches of all the threads, to empty them from the thread changing the state
+         */
+        private final Queue<ThreadCache<T>> registry = new ConcurrentLinkedQueue<>();
+
+        private ThreadCache<T> newCache() {
+            //a new thread is a good time to dispose of the objects cached by the threads which ended
+            for (Iterator<ThreadCache<T>> iterator = registry.iterator(); iterator.hasNext(); ) {
+                ThreadCache<T> cache = iterator.next();
+                if (cache.isOrphaned()) {
+                    iterator.remove();
+                    empty(cache);
+                }
+            }
+            ThreadCache<T> cache = new ThreadCache<>(threadCacheSize, Thread.currentThread());
+            registry.offer(cache);
+            return cache;
+        }
+    }
+
+    /**
+     * The class ThreadCache, the objects cached by one thread. Slots are only filled by their thread but may be
+     * emptied by the thread clearing the pool, hence atomic
+     */
+    private static final class ThreadCache<T> {
+
+        private final AtomicReferenceArray<T> slots;
+
+        /**
+         * held weakly, the registry must not keep ended threads alive
+         */
+        private final WeakReference<Thread> owner;
+
+        private ThreadCache(int size, Thread owner) {
+            this.slots = new AtomicReferenceArray<>(size);
+            this.owner = new WeakReference<>(owner);
+        }
+
+        private boolean isOrphaned() {
+            Thread thread = owner.get();
+            return thread == null || !thread.isAlive();
+        }
+
+        private T poll() {
+            for (int i = slots.length() - 1; i >= 0; i--) {
+                T object = slots.get(i);
+                if (object != null && slots.compareAndSet(i, object, null)) {
+                    return object;
+                }
+            }
+            return null;
+        }
+
+        private boolean offer(T object) {
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) == null && slots.compareAndSet(i, null, object)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int size() {
+            int size = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                size += slots.get(i) != null ? 1 : 0;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * The class Node, an entry of the shared stack, never reused so the stack is free of ABA
+     */
+    private static final class Node<T> {
+
+        private final T object;
+
+        private Node<T> next;
+
+        private Node(T object) {
+            this.object = object;
+        }
+    }
+
+    /**
+     * The class BufferCleaner, frees the memory of direct buffers without waiting for them to be collected, through
+     * {@code Unsafe.invokeCleaner} since Java 9, and the cleaner of the buffer before
+     */
+    static final class BufferCleaner {
+
+        private static final Object UNSAFE;
+
+        private static final Method INVOKE_CLEANER;
+
+        private static final Method CLEANER;
+
+        private static final Method CLEAN;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            Method cleaner = null;
+            Method clean = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                try {
+                    invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                    Field field = unsafeClass.getDeclaredField("theUnsafe");
+                    field.setAccessible(true);
+                    unsafe = field.get(null);
+                } catch (NoSuchMethodException e) {
+                    //Java 8
+                    cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                    clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                logger.warn("direct buffers will be freed when collected, no cleaner available", e);
+                invokeCleaner = null;
+                cleaner = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+            CLEANER = cleaner;
+            CLEAN = clean;
+        }
+
+        private BufferCleaner() {
+        }
+
+        /**
+         * free the memory of a direct buffer, which must not be used afterwards, nor any view of it
+         *
+         * @param buffer the buffer, ignored unless direct
+         * @return true if freed, false if left to the collector
+         */
+        static boolean free(ByteBuffer buffer) {
+            if (!buffer.isDirect()) {
+                return false;
+            }
+            try {
+                if (INVOKE_CLEANER != null) {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                    return true;
+                }
+                if (CLEANER != null) {
+                    Object cleaner = CLEANER.invoke(buffer);
+                    if (cleaner != null) {
+                        CLEAN.invoke(cleaner);
+                        return true;
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                logger.debug("failed to free a direct buffer, left to the collector", e);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class ShutdownReport, the outcome of the shutdown of a {@link LifecycleGroup}
+ *
+ * @author ytbean
+ * @date 2026/10/19 18:55
+ */
+public final class ShutdownReport {
+
+    /**
+     * The outcome of the shutdown of one component
+     */
+    public enum Outcome {
+        /**
+         * destroyed in time
+         */
+        DESTROYED,
+        /**
+         * the destruction threw an exception
+         */
+        FAILED,
+        /**
+         * the destruction did not complete in time, the component was left behind
+         */
+        TIMED_OUT,
+        /**
+         * the destruction was not attempted since the deadline of the shutdown had passed
+         */
+        SKIPPED
+    }
+
+    private final Map<Lifecycle, Outcome> outcomes;
+
+    private final Map<Lifecycle, Throwable> failures;
+
+    private final long elapsedNanos;
+
+    ShutdownReport(Map<Lifecycle, Outcome> outcomes, Map<Lifecycle, Throwable> failures, long elapsedNanos) {
+        this.outcomes = Collections.unmodifiableMap(new LinkedHashMap<>(outcomes));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * get the outcome of every component, in shutdown order
+     *
+     * @return the outcomes
+     */
+    public Map<Lifecycle, Outcome> outcomes() {
+        return outcomes;
+    }
+
+    /**
+     * get the outcome of a component
+     *
+     * @param component the component
+     * @return the outcome, null if the component does not belong to the group
+     */
+    public Outcome outcome(Lifecycle component) {
+        return outcomes.get(component);
+    }
+
+    /**
+     * get the components with the given outcome, in shutdown order
+     *
+     * @param outcome the outcome
+     * @return the components
+     */
+    public List<Lifecycle> components(Outcome outcome) {
+        List<Lifecycle> components = new ArrayList<>();
+        outcomes.forEach((component, value) -> {
+            if (value == outcome) {
+                components.add(component);
+            }
+        });
+        return components;
+    }
+
+    /**
+     * get the exceptions thrown by the components which failed to be destroyed
+     *
+     * @return the failures
+     */
+    public Map<Lifecycle, Throwable> failures() {
+        return failures;
+    }
+
+    /**
+     * get the duration of the shutdown
+     *
+     * @param unit the unit
+     * @return the duration
+     */
+    public long elapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * check whether every component was destroyed
+     *
+     * @return true if so
+     */
+    public boolean isClean() {
+        for (Outcome outcome : outcomes.values()) {
+            if (outcome != Outcome.DESTROYED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("ShutdownReport{elapsed=").append(elapsed(TimeUnit.MILLISECONDS))
+                .append("ms");
+        for (Outcome outcome : Outcome.values()) {
+            List<Lifecycle> components = components(outcome);
+            if (!components.isEmpty()) {
+                text.append(", ").append(outcome.name().toLowerCase()).append('=').append(components);
+            }
+        }
+        return text.append('}').toString();
+    }
+}
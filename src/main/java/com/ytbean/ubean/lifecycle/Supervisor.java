@@ -0,0 +1,348 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The class Supervisor, brings {@code SICK} components back by destroying and starting them again.
+ * <p/>
+ * <p>Like an Erlang supervisor, it either restarts only the component which got sick ({@link Strategy#ONE_FOR_ONE})
+ * or all of its components ({@link Strategy#ONE_FOR_ALL}), for components which can't work without each other.
+ * Restarts are delayed by an exponential backoff with jitter, reset once a restart succeeds, and limited by a
+ * restart intensity: beyond {@code maxRestarts} restarts in a period, the supervisor gives up and leaves the
+ * components as they are.</p>
+ * <p/>
+ * <p>The components are started in the order they were supervised and destroyed in the reverse order, along with
+ * the supervisor. Restarts run on a single scheduler thread, so they never overlap, and exclude the start and the
+ * destruction of the supervisor, so a restart never brings a component up under a destroyed supervisor.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 22:30
+ */
+public class Supervisor extends AbstractLifecycle {
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(Supervisor.class);
+
+    /**
+     * The restart strategy
+     */
+    public enum Strategy {
+        /**
+         * restart the sick component only
+         */
+        ONE_FOR_ONE,
+        /**
+         * restart every component, the sick one included
+         */
+        ONE_FOR_ALL
+    }
+
+    private final Strategy strategy;
+
+    private final List<Child> children = new CopyOnWriteArrayList<>();
+
+    /**
+     * the state of the restarts of all the components, used by {@link Strategy#ONE_FOR_ALL}
+     */
+    private final Child all = new Child(this);
+
+    private final Deque<Long> restarts = new ArrayDeque<>();
+
+    /**
+     * held by a restart and by the start and destruction of the components along with the supervisor
+     */
+    private final Object restartLock = new Object();
+
+    private volatile long initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private volatile long maxBackoffNanos = TimeUnit.SECONDS.toNanos(30);
+
+    private volatile int maxRestarts = 10;
+
+    private volatile long periodNanos = TimeUnit.MINUTES.toNanos(1);
+
+    private volatile boolean givenUp;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public Supervisor(Strategy strategy) {
+        if (strategy == null) {
+            throw new NullPointerException("strategy");
+        }
+        this.strategy = strategy;
+    }
+
+    /**
+     * supervise a component, meant to be called before the supervisor is started
+     *
+     * @param component the component
+     * @return this supervisor
+     */
+    public Supervisor supervise(Lifecycle component) {
+        if (component == null) {
+            throw new NullPointerException("component");
+        }
+        Child child = new Child(component);
+        children.add(child);
+        component.addLifeStateListener((oldState, newState) -> {
+            if (newState == LifeState.SICK) {
+                onSick(child);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * set the delay before a restart, doubled after each failed restart of the same component
+     *
+     * @param initial the delay of the first restart
+     * @param max     the maximum delay
+     * @param unit    the unit of both
+     */
+    public void setBackoff(long initial, long max, TimeUnit unit) {
+        if (initial <= 0 || max < initial) {
+            throw new IllegalArgumentException("initial backoff must be positive and not above the maximum");
+        }
+        this.initialBackoffNanos = unit.toNanos(initial);
+        this.maxBackoffNanos = unit.toNanos(max);
+    }
+
+    /**
+     * set the restart intensity, beyond which the supervisor gives up
+     *
+     * @param maxRestarts the maximum number of restarts in a period
+     * @param period      the period
+     * @param unit        the unit of the period
+     */
+    public void setRestartIntensity(int maxRestarts, long period, TimeUnit unit) {
+        if (maxRestarts < 0 || period <= 0) {
+            throw new IllegalArgumentException("restart intensity must not be negative");
+        }
+        this.maxRestarts = maxRestarts;
+        this.periodNanos = unit.toNanos(period);
+    }
+
+    public Strategy strategy() {
+        return strategy;
+    }
+
+    /**
+     * get the supervised components
+     *
+     * @return the components, in start order
+     */
+    public List<Lifecycle> components() {
+        List<Lifecycle> components = new ArrayList<>(children.size());
+        children.forEach(child -> components.add(child.component));
+        return components;
+    }
+
+    /**
+     * check whether the restart intensity was exceeded, in which case the sick components are no longer restarted
+     * until the supervisor itself is restarted
+     *
+     * @return true if so
+     */
+    public boolean hasGivenUp() {
+        return givenUp;
+    }
+
+    @Override
+    protected void init0() throws LifecycleException {
+        givenUp = false;
+        synchronized (restarts) {
+            restarts.clear();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("lifecycle-supervisor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    protected void start0() throws LifecycleException {
+        synchronized (restartLock) {
+            for (Child child : children) {
+                try {
+                    child.component.start();
+                } catch (LifecycleException e) {
+                    //sick, the listener takes care of restarting it
+                    logger.warn("{} failed to start {}, restarting it", toString(), child.component.toString(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void suspend0() throws LifecycleException {
+        List<Child> reversed = new ArrayList<>(children);
+        Collections.reverse(reversed);
+        for (Child child : reversed) {
+            if (child.component.state() == LifeState.STARTED) {
+                child.component.suspend();
+            }
+        }
+    }
+
+    @Override
+    protected void resume0() throws LifecycleException {
+        for (Child child : children) {
+            if (child.component.state() == LifeState.SUSPENDED) {
+                child.component.resume();
+            }
+        }
+    }
+
+    @Override
+    protected void destroy0() throws LifecycleException {
+        ScheduledExecutorService current = scheduler;
+        if (current != null) {
+            current.shutdownNow();
+            scheduler = null;
+        }
+        //a restart already running finishes first, and the ones after see the supervisor destroying
+        synchronized (restartLock) {
+            destroyChildren();
+        }
+    }
+
+    private void onSick(Child child) {
+        ScheduledExecutorService current = scheduler;
+        LifeState state = state();
+        if (current == null || givenUp || (state != LifeState.STARTING && state != LifeState.STARTED)) {
+            return;
+        }
+        Child restarted = strategy == Strategy.ONE_FOR_ONE ? child : all;
+        if (!restarted.pending.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(restarted.attempts, 30));
+        //equal jitter: half of the delay is kept, the other half is random
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        try {
+            current.schedule(() -> restart(child, restarted), delay, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            //the supervisor is being destroyed
+            restarted.pending.set(false);
+        }
+    }
+
+    private void restart(Child sick, Child restarted) {
+        synchronized (restartLock) {
+            restart0(sick, restarted);
+        }
+    }
+
+    private void restart0(Child sick, Child restarted) {
+        restarted.pending.set(false);
+        LifeState state = state();
+        if (givenUp || (state != LifeState.STARTING && state != LifeState.STARTED)) {
+            return;
+        }
+        if (!admitRestart()) {
+            givenUp = true;
+            logger.error("{} restarted its components more than {} times in {}ms, giving up", toString(),
+                    maxRestarts, TimeUnit.NANOSECONDS.toMillis(periodNanos));
+            return;
+        }
+        restarted.attempts++;
+        try {
+            if (strategy == Strategy.ONE_FOR_ONE) {
+                sick.component.destroy();
+                sick.component.start();
+            } else {
+                destroyChildren();
+                for (Child child : children) {
+                    child.component.start();
+                }
+            }
+            restarted.attempts = 0;
+            logger.info("{} restarted {}", toString(), strategy == Strategy.ONE_FOR_ONE
+                    ? sick.component.toString() : "all of its components");
+        } catch (LifecycleException e) {
+            //sick again, which schedules the next attempt, unless it failed without getting sick
+            logger.warn("{} failed to restart {}", toString(), sick.component.toString(), e);
+            onSick(sick);
+        }
+    }
+
+    /**
+     * record a restart unless the restart intensity is exceeded
+     */
+    private boolean admitRestart() {
+        long now = System.nanoTime();
+        synchronized (restarts) {
+            while (!restarts.isEmpty() && now - restarts.peekFirst() > periodNanos) {
+                restarts.pollFirst();
+            }
+            if (restarts.size() >= maxRestarts) {
+                return false;
+            }
+            restarts.addLast(now);
+            return true;
+        }
+    }
+
+    private void destroyChildren() throws LifecycleException {
+        LifecycleException failure = null;
+        for (int i = children.size() - 1; i >= 0; i--) {
+            try {
+                children.get(i).component.destroy();
+            } catch (LifecycleException e) {
+                if (failure == null) {
+                    failure = new LifecycleException("Failed to destroy the components of " + this, e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Child {
+
+        private final Lifecycle component;
+
+        private final AtomicBoolean pending = new AtomicBoolean();
+
+        /**
+         * the number of restarts since the last successful one, only touched by the scheduler thread
+         */
+        private volatile int attempts;
+
+        private Child(Lifecycle component) {
+            this.component = component;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The class SwappableLifecycle, holds a component which may be replaced while serving, without a gap.
+ * <p/>
+ * <pre>
+ * try (SwappableLifecycle.Lease&lt;Service&gt; lease = holder.acquire()) {
+ *     lease.get().call();
+ * }
+ * </pre>
+ * <p/>
+ * <p>Swapping starts the replacement next to the live component. Once it is started, new leases are given on the
+ * replacement, while the live component keeps serving the leases already given; when they are all closed, or the
+ * lease drain timeout elapses, it is destroyed in the background. A replacement failing to start is destroyed and
+ * the live component kept.</p>
+ * <p/>
+ * <p>The holder is a component itself, initializing, starting, suspending, resuming and destroying the component it
+ * holds. Leases are only given while it is started, and are drained before it is suspended or destroyed.</p>
+ *
+ * @param <T> the type of the component
+ * @author ytbean
+ * @date 2026/10/20 04:00
+ */
+public class SwappableLifecycle<T extends Lifecycle> extends AbstractLifecycle {
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(SwappableLifecycle.class);
+
+    /**
+     * serializes the swaps and the lifecycle operations of the held component
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder swaps = new LongAdder();
+
+    private volatile Slot<T> current;
+
+    private volatile long leaseDrainNanos = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * runs the retirement of the replaced components, which may wait for their leases up to the drain timeout
+     */
+    private volatile Executor retirer = runnable -> {
+        Thread thread = new Thread(runnable, "lifecycle-swap-retire");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    public SwappableLifecycle(T component) {
+        if (component == null) {
+            throw new NullPointerException("component");
+        }
+        this.current = new Slot<>(component);
+    }
+
+    /**
+     * set how long a replaced component, or the held one when suspended or destroyed, waits for its leases
+     *
+     * @param timeout the timeout
+     * @param unit    the unit of the timeout
+     */
+    public void setLeaseDrainTimeout(long timeout, TimeUnit unit) {
+        this.leaseDrainNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * set the executor retiring the replaced components, a thread per retirement unless set
+     *
+     * @param retirer the executor
+     */
+    public void setRetirer(Executor retirer) {
+        if (retirer == null) {
+            throw new NullPointerException("retirer");
+        }
+        this.retirer = retirer;
+    }
+
+    /**
+     * get the component currently held, without preventing it from being replaced
+     *
+     * @return the component
+     */
+    public T current() {
+        return current.component;
+    }
+
+    /**
+     * lease the component currently held. If the component is replaced, it is not destroyed before the lease is
+     * closed or the lease drain timeout elapses, whichever comes first
+     *
+     * @return the lease
+     * @throws LifecycleException if the holder is not started
+     */
+    public Lease<T> acquire() throws LifecycleException {
+        while (true) {
+            Slot<T> slot = current;
+            slot.entered.increment();
+            //swapped in between, the replaced component may already be drained
+            if (current != slot) {
+                slot.exit();
+                continue;
+            }
+            if (state() != LifeState.STARTED) {
+                slot.exit();
+                throw new LifecycleException("Illegal state " + state().name());
+            }
+            return new Lease<>(slot);
+        }
+    }
+
+    /**
+     * replace the held component, the replacement is initialized and started before taking over. The replaced
+     * component is retired in the background, so a caller holding a lease may swap
+     *
+     * @param replacement the new component, in state {@code NEW} or {@code INITIALIZED}
+     * @return the future of the replaced component, completed once it is destroyed
+     * @throws LifecycleException      if the holder is not started, or the replacement fails to start
+     * @throws IllegalArgumentException if the replacement is the held component or went past {@code INITIALIZED}
+     */
+    public CompletableFuture<T> swap(T replacement) throws LifecycleException {
+        if (replacement == null) {
+            throw new NullPointerException("replacement");
+        }
+        LifeState replacementState = replacement.state();
+        if (replacementState != LifeState.NEW && replacementState != LifeState.INITIALIZED) {
+            //started or used elsewhere, not ours to destroy should it fail to start
+            throw new IllegalArgumentException("Illegal replacement state " + replacementState.name());
+        }
+        Slot<T> replaced;
+        lock.lock();
+        try {
+            if (state() != LifeState.STARTED) {
+                throw new LifecycleException("Illegal state " + state().name());
+            }
+            if (replacement == current.component) {
+                throw new IllegalArgumentException("replacement is the held component");
+            }
+            try {
+                if (replacementState == LifeState.NEW) {
+                    replacement.init();
+                }
+                replacement.start();
+            } catch (LifecycleException | RuntimeException e) {
+                //initialized and started here only
+                destroyQuietly(replacement);
+                throw e;
+            }
+            replaced = current;
+            current = new Slot<>(replacement);
+            swaps.increment();
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture<T> retired = new CompletableFuture<>();
+        try {
+            retirer.execute(() -> {
+                retire(replaced);
+                retired.complete(replaced.component);
+            });
+        } catch (RejectedExecutionException e) {
+            retire(replaced);
+            retired.complete(replaced.component);
+        }
+        return retired;
+    }
+
+    /**
+     * get the number of successful swaps
+     *
+     * @return the number of swaps
+     */
+    public long swaps() {
+        return swaps.sum();
+    }
+
+    @Override
+    protected void init0() throws LifecycleException {
+        lock.lock();
+        try {
+            current.component.init();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void start0() throws LifecycleException {
+        lock.lock();
+        try {
+            current.component.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void suspend0() throws LifecycleException {
+        lock.lock();
+        try {
+            awaitLeases(current);
+            current.component.suspend();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void resume0() throws LifecycleException {
+        lock.lock();
+        try {
+            current.component.resume();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void destroy0() throws LifecycleException {
+        lock.lock();
+        try {
+            awaitLeases(current);
+            current.component.destroy();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void retire(Slot<T> replaced) {
+        awaitLeases(replaced);
+        destroyQuietly(replaced.component);
+    }
+
+    private void awaitLeases(Slot<T> slot) {
+        if (!slot.awaitDrained(leaseDrainNanos)) {
+            logger.warn("{} still has {} leases after {}ms, going on", slot.component.toString(), slot.inFlight(),
+                    TimeUnit.NANOSECONDS.toMillis(leaseDrainNanos));
+        }
+    }
+
+    private void destroyQuietly(T component) {
+        try {
+            component.destroy();
+        } catch (LifecycleException | RuntimeException e) {
+            logger.warn("{} failed to destroy {}", toString(), component.toString(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SwappableLifecycle{state=" + state() + ", component=" + current.component + '}';
+    }
+
+    /**
+     * The class Lease, the use of a held component, to be closed once done with it
+     *
+     * @param <T> the type of the component
+     */
+    public static final class Lease<T extends Lifecycle> implements AutoCloseable {
+
+        private final Slot<T> slot;
+
+        private boolean closed;
+
+        private Lease(Slot<T> slot) {
+            this.slot = slot;
+        }
+
+        public T get() {
+            return slot.component;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                slot.exit();
+            }
+        }
+    }
+
+    /**
+     * The class Slot, a held component and its leases, counted like the calls of a {@link LifecycleGuard}
+     */
+    private static final class Slot<T extends Lifecycle> {
+
+        private final T component;
+
+        private final LongAdder entered = new LongAdder();
+
+        private final LongAdder exited = new LongAdder();
+
+        private volatile Thread drainer;
+
+        private Slot(T component) {
+            this.component = component;
+        }
+
+        private void exit() {
+            exited.increment();
+            Thread waiting = drainer;
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        }
+
+        private long inFlight() {
+            long exits = exited.sum();
+            return entered.sum() - exits;
+        }
+
+        private boolean awaitDrained(long timeoutNanos) {
+            if (inFlight() == 0) {
+                return true;
+            }
+            long deadline = System.nanoTime() + timeoutNanos;
+            drainer = Thread.currentThread();
+            try {
+                while (inFlight() != 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+                return true;
+            } finally {
+                drainer = null;
+            }
+        }
+    }
+}
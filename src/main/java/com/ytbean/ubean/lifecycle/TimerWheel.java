@@ -0,0 +1,502 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import com.ytbean.ubean.logging.AdaptiveLogger;
+import com.ytbean.ubean.logging.AdaptiveLoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The class TimerWheel, a hashed timing wheel scheduling many short timeouts in constant time.
+ * <p/>
+ * <p>Scheduling and cancelling only enqueue the timeout; the worker thread moves new timeouts to the bucket of their
+ * deadline and removes the cancelled ones from their bucket once per tick. A timeout fires within one tick after
+ * its deadline, on the worker thread, so its task should be short.</p>
+ * <p/>
+ * <p>The clock of the wheel only runs while it is started: timeouts may be scheduled before it is started, and their
+ * remaining delay is kept while it is suspended. Destroying it cancels the timeouts which have not fired yet.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/20 02:00
+ */
+public class TimerWheel extends AbstractLifecycle {
+
+    private static final AdaptiveLogger logger = AdaptiveLoggerFactory.getLogger(TimerWheel.class);
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final String name;
+
+    private final long tickNanos;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder pending = new LongAdder();
+
+    private final ReentrantLock clockLock = new ReentrantLock();
+
+    private final Condition clockChanged = clockLock.newCondition();
+
+    /**
+     * the nano time at which the clock read zero, shifted by the time spent frozen
+     */
+    private volatile long origin;
+
+    /**
+     * the clock while frozen, -1 while running
+     */
+    private volatile long frozen;
+
+    private volatile boolean running;
+
+    private volatile Thread worker;
+
+    /**
+     * the ticks elapsed, only accessed by the worker
+     */
+    private long tick;
+
+    /**
+     * create a wheel of 512 buckets ticking every 10 milliseconds
+     *
+     * @param name the name of the wheel, name of its worker thread
+     */
+    public TimerWheel(String name) {
+        this(name, 10, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * create a wheel
+     *
+     * @param name          the name of the wheel, name of its worker thread
+     * @param tickDuration  the duration of a tick, the precision of the timeouts
+     * @param unit          the unit of the tick duration
+     * @param ticksPerWheel the number of buckets, rounded up to a power of two. Timeouts further than one turn of
+     *                      the wheel are visited once per turn
+     */
+    public TimerWheel(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (name == null) {
+            throw new NullPointerException("name");
+        }
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel must be in (0, 2^30]");
+        }
+        this.name = name;
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.origin = System.nanoTime();
+        this.frozen = 0;
+    }
+
+    /**
+     * schedule a task
+     *
+     * @param task  the task, run on the worker thread
+     * @param delay the delay, measured while the wheel is started
+     * @param unit  the unit of the delay
+     * @return the timeout of the task
+     * @throws RejectedExecutionException if the wheel is destroyed
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        checkAccepting();
+        long now = clock();
+        long nanos = unit.toNanos(Math.max(delay, 0));
+        Timeout timeout = new Timeout(this, task, nanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + nanos);
+        pending.increment();
+        scheduled.offer(timeout);
+        //destroyed meanwhile, the worker may be gone already
+        try {
+            checkAccepting();
+        } catch (RejectedExecutionException e) {
+            timeout.cancel();
+            throw e;
+        }
+        return timeout;
+    }
+
+    /**
+     * get the number of timeouts scheduled which have neither fired nor been cancelled
+     *
+     * @return the number of timeouts
+     */
+    public long pending() {
+        return pending.sum();
+    }
+
+    /**
+     * get the number of buckets
+     *
+     * @return the number of buckets
+     */
+    public int ticksPerWheel() {
+        return wheel.length;
+    }
+
+    private void checkAccepting() {
+        LifeState state = state();
+        if (state == LifeState.DESTROYING || state == LifeState.DESTROYED || state == LifeState.SICK) {
+            throw new RejectedExecutionException(name + " is " + state.name());
+        }
+    }
+
+    /**
+     * get the clock of the wheel, the nanoseconds it spent started
+     */
+    private long clock() {
+        long value = frozen;
+        return value >= 0 ? value : System.nanoTime() - origin;
+    }
+
+    private void freeze() {
+        clockLock.lock();
+        try {
+            if (frozen < 0) {
+                frozen = System.nanoTime() - origin;
+            }
+            clockChanged.signalAll();
+        } finally {
+            clockLock.unlock();
+        }
+    }
+
+    private void unfreeze() {
+        clockLock.lock();
+        try {
+            if (frozen >= 0) {
+                //origin first, a reader seeing the clock running sees the shifted origin
+                origin = System.nanoTime() - frozen;
+                frozen = -1;
+            }
+            clockChanged.signalAll();
+        } finally {
+            clockLock.unlock();
+        }
+    }
+
+    @Override
+    protected void init0() throws LifecycleException {
+        //the worker is created when started
+    }
+
+    @Override
+    protected void start0() throws LifecycleException {
+        running = true;
+        Thread thread = new Thread(this::work, name);
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+        unfreeze();
+    }
+
+    @Override
+    protected void suspend0() throws LifecycleException {
+        freeze();
+    }
+
+    @Override
+    protected void resume0() throws LifecycleException {
+        unfreeze();
+    }
+
+    @Override
+    protected void destroy0() throws LifecycleException {
+        Thread thread = worker;
+        running = false;
+        freeze();
+        if (thread == null) {
+            cancelAll();
+            return;
+        }
+        //destroyed by one of its tasks, the worker cancels the rest when the task returns
+        if (thread == Thread.currentThread()) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw LifecycleException.wrap(e);
+        }
+    }
+
+    private void work() {
+        try {
+            while (awaitNextTick()) {
+                removeCancelled();
+                transferScheduled();
+                Bucket bucket = wheel[(int) (tick & mask)];
+                bucket.expire();
+                tick++;
+            }
+        } catch (InterruptedException e) {
+            //destroyed
+        } finally {
+            worker = null;
+            cancelAll();
+        }
+    }
+
+    /**
+     * wait for the end of the current tick, the clock standing still while frozen
+     *
+     * @return false if destroyed
+     */
+    private boolean awaitNextTick() throws InterruptedException {
+        long end = tickNanos * (tick + 1);
+        clockLock.lock();
+        try {
+            while (running) {
+                if (frozen >= 0) {
+                    clockChanged.await();
+                    continue;
+                }
+                long now = clock();
+                if (now >= end) {
+                    return true;
+                }
+                clockChanged.awaitNanos(end - now);
+            }
+            return false;
+        } finally {
+            clockLock.unlock();
+        }
+    }
+
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.WAITING) {
+                continue;
+            }
+            long due = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (due - tick) / wheel.length;
+            //already due, fires on the current tick
+            long ticks = Math.max(due, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void cancelAll() {
+        long count = 0;
+        for (Bucket bucket : wheel) {
+            Timeout timeout;
+            while ((timeout = bucket.head) != null) {
+                bucket.remove(timeout);
+                count += timeout.cancel() ? 1 : 0;
+            }
+        }
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            count += timeout.cancel() ? 1 : 0;
+        }
+        cancelled.clear();
+        if (count != 0) {
+            logger.info("{} cancelled {} timeouts when destroyed", name, count);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TimerWheel{name=" + name + ", state=" + state() + ", pending=" + pending.sum() + '}';
+    }
+
+    /**
+     * The class Timeout, a task scheduled on a {@link TimerWheel}
+     */
+    public static final class Timeout {
+
+        private static final int WAITING = 0;
+
+        private static final int CANCELLED = 1;
+
+        private static final int EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimerWheel wheel;
+
+        private final Runnable task;
+
+        private final long deadline;
+
+        private volatile int state;
+
+        /**
+         * the turns of the wheel left before the deadline, and the links of the bucket, only accessed by the worker
+         */
+        private long remainingRounds;
+
+        private Bucket bucket;
+
+        private Timeout previous;
+
+        private Timeout next;
+
+        private Timeout(TimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public Runnable task() {
+            return task;
+        }
+
+        /**
+         * cancel the task if it has not run yet
+         *
+         * @return true if cancelled, false if it already ran or was already cancelled
+         */
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, WAITING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrement();
+            //removed from its bucket by the worker on the next tick
+            wheel.cancelled.offer(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, WAITING, EXPIRED)) {
+                return;
+            }
+            wheel.pending.decrement();
+            try {
+                task.run();
+            } catch (Throwable cause) {
+                logger.error("timeout of {} cause exception", wheel.name, cause);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Timeout{task=" + task + ", state=" + (state == WAITING ? "WAITING" : state == CANCELLED
+                    ? "CANCELLED" : "EXPIRED") + '}';
+        }
+    }
+
+    /**
+     * The class Bucket, a doubly linked list of timeouts, only accessed by the worker
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.previous != null) {
+                timeout.previous.next = next;
+            }
+            if (next != null) {
+                next.previous = timeout.previous;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * fire the timeouts of the current turn, their deadline is before the end of the tick
+         */
+        private void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
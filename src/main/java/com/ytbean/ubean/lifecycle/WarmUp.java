@@ -0,0 +1,229 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The class WarmUp, replays a workload until the code it runs is fast enough to take traffic, meant to be run from
+ * {@link AbstractLifecycle#warmup0()}.
+ * <p/>
+ * <p>The workload runs in windows of iterations. It stops once the 99th percentile latency of a window reaches the
+ * target, if any, after the minimum number of iterations; or when the maximum number of iterations or the timeout is
+ * reached, whichever comes first.</p>
+ * <p/>
+ * <pre>
+ * protected void warmup0() throws LifecycleException {
+ *     WarmUp.replay(recordedRequests, this::handle)
+ *             .latencyTarget(2, TimeUnit.MILLISECONDS)
+ *             .maxIterations(50_000)
+ *             .run();
+ * }
+ * </pre>
+ *
+ * @author ytbean
+ * @date 2026/10/19 23:00
+ */
+public final class WarmUp {
+
+    private final Runnable workload;
+
+    private long minIterations = 1_000;
+
+    private long maxIterations = 10_000;
+
+    private int window = 100;
+
+    private long latencyTargetNanos = -1;
+
+    private long timeoutNanos = TimeUnit.MINUTES.toNanos(1);
+
+    private WarmUp(Runnable workload) {
+        this.workload = workload;
+    }
+
+    /**
+     * warm up with a synthetic workload
+     *
+     * @param workload one iteration of the workload
+     * @return the warm-up
+     */
+    public static WarmUp of(Runnable workload) {
+        if (workload == null) {
+            throw new NullPointerException("workload");
+        }
+        return new WarmUp(workload);
+    }
+
+    /**
+     * warm up by replaying recorded requests, over and over
+     *
+     * @param recorded the recorded requests, must not be empty
+     * @param handler  handles one request
+     * @param <T>      the type of the requests
+     * @return the warm-up
+     */
+    public static <T> WarmUp replay(Iterable<T> recorded, Consumer<? super T> handler) {
+        if (!recorded.iterator().hasNext()) {
+            throw new IllegalArgumentException("nothing recorded");
+        }
+        return of(new Runnable() {
+
+            private Iterator<T> iterator = recorded.iterator();
+
+            @Override
+            public void run() {
+                if (!iterator.hasNext()) {
+                    iterator = recorded.iterator();
+                }
+                handler.accept(iterator.next());
+            }
+        });
+    }
+
+    public WarmUp minIterations(long minIterations) {
+        this.minIterations = minIterations;
+        return this;
+    }
+
+    public WarmUp maxIterations(long maxIterations) {
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    /**
+     * set the number of iterations the latency percentile is computed over
+     *
+     * @param window the number of iterations
+     * @return this warm-up
+     */
+    public WarmUp window(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.window = window;
+        return this;
+    }
+
+    /**
+     * stop as soon as the 99th percentile latency of a window is at or below the target, once the minimum number of
+     * iterations is run
+     *
+     * @param target the latency target
+     * @param unit   the unit of the target
+     * @return this warm-up
+     */
+    public WarmUp latencyTarget(long target, TimeUnit unit) {
+        this.latencyTargetNanos = unit.toNanos(target);
+        return this;
+    }
+
+    public WarmUp timeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * run the workload
+     *
+     * @return the result
+     * @throws LifecycleException if the workload throws
+     */
+    public Result run() throws LifecycleException {
+        long[] latencies = new long[window];
+        long started = System.nanoTime();
+        long iterations = 0;
+        long percentile = -1;
+        boolean reached = false;
+        while (iterations < maxIterations && System.nanoTime() - started < timeoutNanos) {
+            int count = (int) Math.min(window, maxIterations - iterations);
+            for (int i = 0; i < count; i++) {
+                long before = System.nanoTime();
+                try {
+                    workload.run();
+                } catch (RuntimeException e) {
+                    throw new LifecycleException("Warm-up workload failed at iteration " + (iterations + i), e);
+                }
+                latencies[i] = System.nanoTime() - before;
+            }
+            iterations += count;
+            Arrays.sort(latencies, 0, count);
+            percentile = latencies[Math.min(count - 1, (int) Math.ceil(count * 0.99) - 1)];
+            if (latencyTargetNanos >= 0 && iterations >= minIterations && percentile <= latencyTargetNanos) {
+                reached = true;
+                break;
+            }
+        }
+        return new Result(iterations, percentile, reached, System.nanoTime() - started);
+    }
+
+    /**
+     * The outcome of a warm-up
+     */
+    public static final class Result {
+
+        private final long iterations;
+
+        private final long percentileNanos;
+
+        private final boolean targetReached;
+
+        private final long elapsedNanos;
+
+        private Result(long iterations, long percentileNanos, boolean targetReached, long elapsedNanos) {
+            this.iterations = iterations;
+            this.percentileNanos = percentileNanos;
+            this.targetReached = targetReached;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long iterations() {
+            return iterations;
+        }
+
+        /**
+         * get the 99th percentile latency of the last window
+         *
+         * @param unit the unit
+         * @return the latency, negative if nothing ran
+         */
+        public long latency(TimeUnit unit) {
+            return percentileNanos < 0 ? -1 : unit.convert(percentileNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * check whether the latency target was reached, always false without target
+         *
+         * @return true if so
+         */
+        public boolean targetReached() {
+            return targetReached;
+        }
+
+        public long elapsed(TimeUnit unit) {
+            return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return "WarmUp.Result{iterations=" + iterations + ", p99=" + percentileNanos + "ns, targetReached="
+                    + targetReached + ", elapsed=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms}";
+        }
+    }
+}
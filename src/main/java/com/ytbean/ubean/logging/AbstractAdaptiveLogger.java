@@ -220,6 +220,46 @@ abstract class AbstractAdaptiveLogger implements AdaptiveLogger {
         }
     }
 
+    @Override
+    public AdaptiveLogBatch batch() {
+        AdaptiveLogSink sink = batchSink();
+        if (sink == null) {
+            //deferring gains nothing without a batch entry point, and would lose the time, thread and caller
+            return new EventBatch(this, new ReplaySink(batchReplay()), false);
+        }
+        return new EventBatch(this, sink, true);
+    }
+
+    /**
+     * get the sink receiving the events of a {@link #batch()} as one unit
+     *
+     * @return the sink, null if the backend has no batch entry point
+     */
+    protected AdaptiveLogSink batchSink() {
+        return null;
+    }
+
+    /**
+     * get the logger replaying the events of a {@link #batch()} as they are logged, when there is no
+     * {@link #batchSink()}
+     *
+     * @return the logger, reporting the batch as the logging boundary
+     */
+    AdaptiveLogger batchReplay() {
+        return wrappedBy(AbstractEventLogger.FQCN);
+    }
+
+    /**
+     * get the logger to delegate to from a wrapping logger, so the backend finds the caller location beyond the
+     * wrapper
+     *
+     * @param fqcn the fully qualified name of the wrapping class
+     * @return this logger, or a copy reporting the wrapper as the logging boundary
+     */
+    AdaptiveLogger wrappedBy(String fqcn) {
+        return this;
+    }
+
     protected Object readResolve() throws ObjectStreamException {
         return AdaptiveLoggerFactory.getLogger(name());
     }
@@ -0,0 +1,245 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import org.slf4j.helpers.FormattingTuple;
+import org.slf4j.helpers.MessageFormatter;
+
+import static com.ytbean.ubean.logging.AdaptiveLogLevel.*;
+
+/**
+ * The class AbstractEventLogger, turns every enabled log call into an {@link AdaptiveLogEvent}
+ *
+ * @author ytbean
+ * @date 2026/10/19 09:41
+ */
+abstract class AbstractEventLogger extends AbstractAdaptiveLogger {
+
+    static final String FQCN = AbstractEventLogger.class.getName();
+
+    protected AbstractEventLogger(String name) {
+        super(name);
+    }
+
+    @Override
+    public abstract boolean isEnabled(AdaptiveLogLevel level);
+
+    /**
+     * hand over an event built from an enabled log call
+     *
+     * @param event the event
+     */
+    protected abstract void emit(AdaptiveLogEvent event);
+
+    private void emit(AdaptiveLogLevel level, String message, Throwable cause) {
+        emit(new AdaptiveLogEvent(System.currentTimeMillis(), level, name(), Thread.currentThread().getName(),
+                message, cause, AdaptiveLogContext.current()));
+    }
+
+    private void emit(AdaptiveLogLevel level, FormattingTuple tuple) {
+        emit(level, tuple.getMessage(), tuple.getThrowable());
+    }
+
+    @Override
+    public void log(AdaptiveLogLevel level, String msg) {
+        if (isEnabled(level)) {
+            emit(level, msg, null);
+        }
+    }
+
+    @Override
+    public void log(AdaptiveLogLevel level, String format, Object arg) {
+        if (isEnabled(level)) {
+            emit(level, MessageFormatter.format(format, arg));
+        }
+    }
+
+    @Override
+    public void log(AdaptiveLogLevel level, String format, Object argA, Object argB) {
+        if (isEnabled(level)) {
+            emit(level, MessageFormatter.format(format, argA, argB));
+        }
+    }
+
+    @Override
+    public void log(AdaptiveLogLevel level, String format, Object... arguments) {
+        if (isEnabled(level)) {
+            emit(level, MessageFormatter.arrayFormat(format, arguments));
+        }
+    }
+
+    @Override
+    public void log(AdaptiveLogLevel level, String msg, Throwable cause) {
+        if (isEnabled(level)) {
+            emit(level, msg, cause);
+        }
+    }
+
+    @Override
+    public void log(AdaptiveLogLevel level, Throwable cause) {
+        log(level, EXCEPTION_MESSAGE, cause);
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return isEnabled(TRACE);
+    }
+
+    @Override
+    public void trace(String msg) {
+        log(TRACE, msg);
+    }
+
+    @Override
+    public void trace(String format, Object arg) {
+        log(TRACE, format, arg);
+    }
+
+    @Override
+    public void trace(String format, Object argA, Object argB) {
+        log(TRACE, format, argA, argB);
+    }
+
+    @Override
+    public void trace(String format, Object... arguments) {
+        log(TRACE, format, arguments);
+    }
+
+    @Override
+    public void trace(String msg, Throwable t) {
+        log(TRACE, msg, t);
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return isEnabled(DEBUG);
+    }
+
+    @Override
+    public void debug(String msg) {
+        log(DEBUG, msg);
+    }
+
+    @Override
+    public void debug(String format, Object arg) {
+        log(DEBUG, format, arg);
+    }
+
+    @Override
+    public void debug(String format, Object argA, Object argB) {
+        log(DEBUG, format, argA, argB);
+    }
+
+    @Override
+    public void debug(String format, Object... arguments) {
+        log(DEBUG, format, arguments);
+    }
+
+    @Override
+    public void debug(String msg, Throwable t) {
+        log(DEBUG, msg, t);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return isEnabled(INFO);
+    }
+
+    @Override
+    public void info(String msg) {
+        log(INFO, msg);
+    }
+
+    @Override
+    public void info(String format, Object arg) {
+        log(INFO, format, arg);
+    }
+
+    @Override
+    public void info(String format, Object argA, Object argB) {
+        log(INFO, format, argA, argB);
+    }
+
+    @Override
+    public void info(String format, Object... arguments) {
+        log(INFO, format, arguments);
+    }
+
+    @Override
+    public void info(String msg, Throwable t) {
+        log(INFO, msg, t);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return isEnabled(WARN);
+    }
+
+    @Override
+    public void warn(String msg) {
+        log(WARN, msg);
+    }
+
+    @Override
+    public void warn(String format, Object arg) {
+        log(WARN, format, arg);
+    }
+
+    @Override
+    public void warn(String format, Object... arguments) {
+        log(WARN, format, arguments);
+    }
+
+    @Override
+    public void warn(String format, Object argA, Object argB) {
+        log(WARN, format, argA, argB);
+    }
+
+    @Override
+    public void warn(String msg, Throwable t) {
+        log(WARN, msg, t);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return isEnabled(ERROR);
+    }
+
+    @Override
+    public void error(String msg) {
+        log(ERROR, msg);
+    }
+
+    @Override
+    public void error(String format, Object arg) {
+        log(ERROR, format, arg);
+    }
+
+    @Override
+    public void error(String format, Object argA, Object argB) {
+        log(ERROR, format, argA, argB);
+    }
+
+    @Override
+    public void error(String format, Object... arguments) {
+        log(ERROR, format, arguments);
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+        log(ERROR, msg, t);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+/**
+ * The interface AdaptiveLogBatch, an {@link AdaptiveLogger} collecting its events until {@link #flush()}, or
+ * passing them straight through when the backend has no batch entry point
+ *
+ * @author ytbean
+ * @date 2026/10/19 13:05
+ * @see AdaptiveLogger#batch()
+ */
+public interface AdaptiveLogBatch extends AdaptiveLogger, AutoCloseable {
+
+    /**
+     * get the number of events collected since the last flush
+     *
+     * @return the number of pending events
+     */
+    int size();
+
+    /**
+     * hand the collected events over to the sink as one unit
+     */
+    void flush();
+
+    /**
+     * flush the collected events
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,294 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * The class AdaptiveLogContext, an immutable key/value context attached to the current thread.
+ * <p/>
+ * <p>Unlike the SLF4J {@code MDC}, a context is never mutated in place: {@link #with(String, String)} returns a new
+ * instance sharing nothing mutable with the old one, so handing a context over to another thread is just handing
+ * over the reference. {@link #current()} is therefore an O(1) snapshot, and {@link #bind(Runnable)} /
+ * {@link #wrap(Executor)} carry it across thread pools without copying.</p>
+ * <p/>
+ * <p>Entries are kept in a flat array, which is the cheapest representation for the handful of keys (trace id,
+ * tenant, user...) a request usually carries.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 09:12
+ */
+public final class AdaptiveLogContext {
+
+    /**
+     * The context without any entry
+     */
+    public static final AdaptiveLogContext EMPTY = new AdaptiveLogContext(new String[0]);
+
+    private static final ThreadLocal<AdaptiveLogContext> CURRENT = ThreadLocal.withInitial(() -> EMPTY);
+
+    /**
+     * keys and values interleaved: k0, v0, k1, v1...
+     */
+    private final String[] entries;
+
+    private AdaptiveLogContext(String[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * get the context bound to the current thread, this is a snapshot by nature since contexts are immutable
+     *
+     * @return the current context, never null
+     */
+    public static AdaptiveLogContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * bind a new context made of the current one plus the given entry to the current thread
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the scope which restores the previous context when closed
+     */
+    public static Scope put(String key, String value) {
+        return current().with(key, value).attach();
+    }
+
+    /**
+     * wrap an executor so that every submitted task runs with the context current at submission time
+     *
+     * @param executor the executor to wrap
+     * @return the context aware executor
+     */
+    public static Executor wrap(Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor");
+        }
+        return task -> executor.execute(current().bind(task));
+    }
+
+    /**
+     * get the value of the given key
+     *
+     * @param key the key
+     * @return the value, or null if absent
+     */
+    public String get(String key) {
+        int index = indexOf(key);
+        return index < 0 ? null : entries[index + 1];
+    }
+
+    /**
+     * create a context with the given entry added or replaced
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the new context, or this context if it already holds the same entry
+     */
+    public AdaptiveLogContext with(String key, String value) {
+        if (key == null) {
+            throw new NullPointerException("key");
+        }
+        if (value == null) {
+            return without(key);
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            if (value.equals(entries[index + 1])) {
+                return this;
+            }
+            String[] copy = entries.clone();
+            copy[index + 1] = value;
+            return new AdaptiveLogContext(copy);
+        }
+        String[] copy = Arrays.copyOf(entries, entries.length + 2);
+        copy[entries.length] = key;
+        copy[entries.length + 1] = value;
+        return new AdaptiveLogContext(copy);
+    }
+
+    /**
+     * create a context without the given key
+     *
+     * @param key the key
+     * @return the new context, or this context if the key is absent
+     */
+    public AdaptiveLogContext without(String key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return this;
+        }
+        if (entries.length == 2) {
+            return EMPTY;
+        }
+        String[] copy = new String[entries.length - 2];
+        System.arraycopy(entries, 0, copy, 0, index);
+        System.arraycopy(entries, index + 2, copy, index, entries.length - index - 2);
+        return new AdaptiveLogContext(copy);
+    }
+
+    /**
+     * get the number of entries
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.length >> 1;
+    }
+
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    String keyAt(int index) {
+        return entries[index << 1];
+    }
+
+    String valueAt(int index) {
+        return entries[(index << 1) + 1];
+    }
+
+    /**
+     * visit the entries in insertion order
+     *
+     * @param action the visitor
+     */
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < entries.length; i += 2) {
+            action.accept(entries[i], entries[i + 1]);
+        }
+    }
+
+    /**
+     * copy the entries into a map, e.g. to interoperate with the SLF4J {@code MDC}
+     *
+     * @return an unmodifiable map of the entries
+     */
+    public Map<String, String> toMap() {
+        if (isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> map = new LinkedHashMap<>(entries.length);
+        forEach(map::put);
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * bind this context to the current thread
+     *
+     * @return the scope which restores the previous context when closed
+     */
+    public Scope attach() {
+        final AdaptiveLogContext previous = CURRENT.get();
+        if (previous == this) {
+            return Scope.NOOP;
+        }
+        CURRENT.set(this);
+        return () -> CURRENT.set(previous);
+    }
+
+    /**
+     * wrap a task so that it runs with this context
+     *
+     * @param task the task
+     * @return the wrapped task
+     */
+    public Runnable bind(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        return () -> {
+            Scope scope = attach();
+            try {
+                task.run();
+            } finally {
+                scope.close();
+            }
+        };
+    }
+
+    /**
+     * wrap a task so that it runs with this context
+     *
+     * @param task the task
+     * @param <V>  the result type
+     * @return the wrapped task
+     */
+    public <V> Callable<V> bind(Callable<V> task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        return () -> {
+            Scope scope = attach();
+            try {
+                return task.call();
+            } finally {
+                scope.close();
+            }
+        };
+    }
+
+    private int indexOf(String key) {
+        for (int i = 0; i < entries.length; i += 2) {
+            if (entries[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AdaptiveLogContext)) {
+            return false;
+        }
+        return toMap().equals(((AdaptiveLogContext) o).toMap());
+    }
+
+    @Override
+    public int hashCode() {
+        return toMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    /**
+     * The interface Scope, restores the previously bound context when closed
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        Scope NOOP = () -> {
+        };
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+/**
+ * The class AdaptiveLogEvent, an immutable log event handed over to an {@link AdaptiveLogSink}.
+ * <p/>
+ * <p>The event keeps a reference to the {@link AdaptiveLogContext} current at creation time, it never copies it.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 09:26
+ */
+public final class AdaptiveLogEvent {
+
+    private final long timestamp;
+
+    private final AdaptiveLogLevel level;
+
+    private final String loggerName;
+
+    private final String threadName;
+
+    private final String message;
+
+    private final Throwable cause;
+
+    private final AdaptiveLogContext context;
+
+    public AdaptiveLogEvent(long timestamp, AdaptiveLogLevel level, String loggerName, String threadName,
+                            String message, Throwable cause, AdaptiveLogContext context) {
+        if (level == null) {
+            throw new NullPointerException("level");
+        }
+        this.timestamp = timestamp;
+        this.level = level;
+        this.loggerName = loggerName;
+        this.threadName = threadName;
+        this.message = message;
+        this.cause = cause;
+        this.context = context == null ? AdaptiveLogContext.EMPTY : context;
+    }
+
+    /**
+     * get the creation time in milliseconds since epoch
+     *
+     * @return the timestamp
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public AdaptiveLogLevel level() {
+        return level;
+    }
+
+    public String loggerName() {
+        return loggerName;
+    }
+
+    public String threadName() {
+        return threadName;
+    }
+
+    /**
+     * get the formatted message
+     *
+     * @return the message
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * get the attached throwable
+     *
+     * @return the throwable, or null
+     */
+    public Throwable cause() {
+        return cause;
+    }
+
+    /**
+     * get the context captured when the event was created
+     *
+     * @return the context, never null
+     */
+    public AdaptiveLogContext context() {
+        return context;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveLogEvent(" + timestamp + ' ' + level + ' ' + loggerName + " - " + message + ')';
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+/**
+ * The interface AdaptiveLogSampler, decides whether the logs of a request are kept
+ *
+ * @author ytbean
+ * @date 2026/10/19 11:02
+ */
+@FunctionalInterface
+public interface AdaptiveLogSampler {
+
+    /**
+     * decide whether the request identified by {@code traceId} is sampled
+     *
+     * @param traceId the trace id, never null
+     * @return true if all the logs of the request should be kept
+     */
+    boolean sample(String traceId);
+
+    /**
+     * create a sampler keeping the given ratio of the requests.
+     * <p/>
+     * <p>The decision only depends on the trace id, so every thread and every node carrying the same trace id takes
+     * the same decision.</p>
+     *
+     * @param ratio the ratio of sampled requests, in [0, 1]
+     * @return the sampler
+     */
+    static AdaptiveLogSampler ratio(double ratio) {
+        if (!(ratio >= 0 && ratio <= 1)) {
+            throw new IllegalArgumentException("ratio: " + ratio);
+        }
+        final long bound = (long) (ratio * (1L << 53));
+        return traceId -> (hash(traceId) >>> 11) < bound;
+    }
+
+    /**
+     * a 64-bit FNV-1a hash finalized by the murmur3 mixer, stable across JVMs
+     *
+     * @param traceId the trace id
+     * @return the hash
+     */
+    static long hash(String traceId) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < traceId.length(); i++) {
+            h ^= traceId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The class AdaptiveLogSamplingPolicy, keeps all the logs of the sampled requests and only the logs at or above
+ * {@link #unsampledLevel()} for the others.
+ * <p/>
+ * <p>A request is identified by the {@link #traceKey()} entry of the current {@link AdaptiveLogContext}. The
+ * {@link AdaptiveLogSampler} is asked once per trace id, its decision is kept in a bounded direct-mapped cache
+ * shared by all the threads, and the last decision of each thread is memoized with the context it was taken for, so
+ * the steady-state cost of an unsampled log call is a thread-local read and a reference comparison. Contexts stay
+ * immutable. Logs made outside of any request (no trace id) are kept.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 11:10
+ */
+public final class AdaptiveLogSamplingPolicy {
+
+    public static final String DEFAULT_TRACE_KEY = "traceId";
+
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private final String traceKey;
+
+    private final AdaptiveLogSampler sampler;
+
+    private final AdaptiveLogLevel unsampledLevel;
+
+    private final AtomicReferenceArray<Decision> decisions;
+
+    private final int mask;
+
+    /**
+     * the last decision of each thread, valid as long as the current context is the same instance
+     */
+    private final ThreadLocal<Memo> memo = ThreadLocal.withInitial(Memo::new);
+
+    public AdaptiveLogSamplingPolicy(AdaptiveLogSampler sampler, AdaptiveLogLevel unsampledLevel) {
+        this(DEFAULT_TRACE_KEY, sampler, unsampledLevel, DEFAULT_CACHE_SIZE);
+    }
+
+    public AdaptiveLogSamplingPolicy(String traceKey, AdaptiveLogSampler sampler, AdaptiveLogLevel unsampledLevel,
+                                     int cacheSize) {
+        if (traceKey == null) {
+            throw new NullPointerException("traceKey");
+        }
+        if (sampler == null) {
+            throw new NullPointerException("sampler");
+        }
+        if (unsampledLevel == null) {
+            throw new NullPointerException("unsampledLevel");
+        }
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("cacheSize: " + cacheSize);
+        }
+        this.traceKey = traceKey;
+        this.sampler = sampler;
+        this.unsampledLevel = unsampledLevel;
+        int capacity = Integer.highestOneBit(cacheSize - 1) << 1;
+        this.decisions = new AtomicReferenceArray<>(Math.max(capacity, 1));
+        this.mask = decisions.length() - 1;
+    }
+
+    /**
+     * get the key of the trace id in the {@link AdaptiveLogContext}
+     *
+     * @return the key
+     */
+    public String traceKey() {
+        return traceKey;
+    }
+
+    public AdaptiveLogSampler sampler() {
+        return sampler;
+    }
+
+    /**
+     * get the minimum level still logged for unsampled requests
+     *
+     * @return the level
+     */
+    public AdaptiveLogLevel unsampledLevel() {
+        return unsampledLevel;
+    }
+
+    /**
+     * check whether a log call at {@code level} passes the policy in the current context
+     *
+     * @param level the level
+     * @return true if the log call should go through
+     */
+    boolean admits(AdaptiveLogLevel level) {
+        return level.compareTo(unsampledLevel) >= 0 || isSampled(AdaptiveLogContext.current());
+    }
+
+    /**
+     * check whether the request of the given context is sampled
+     *
+     * @param context the context
+     * @return true if the request is sampled
+     */
+    public boolean isSampled(AdaptiveLogContext context) {
+        Memo last = memo.get();
+        if (last.context == context) {
+            return last.sampled;
+        }
+        boolean sampled = decide(context.get(traceKey));
+        last.context = context;
+        last.sampled = sampled;
+        return sampled;
+    }
+
+    private boolean decide(String traceId) {
+        if (traceId == null) {
+            return true;
+        }
+        int index = traceId.hashCode() & mask;
+        Decision decision = decisions.get(index);
+        if (decision != null && decision.traceId.equals(traceId)) {
+            return decision.sampled;
+        }
+        decision = new Decision(traceId, sampler.sample(traceId));
+        decisions.set(index, decision);
+        return decision.sampled;
+    }
+
+    private static final class Decision {
+
+        private final String traceId;
+
+        private final boolean sampled;
+
+        private Decision(String traceId, boolean sampled) {
+            this.traceId = traceId;
+            this.sampled = sampled;
+        }
+    }
+
+    /**
+     * The class Memo, only accessed by its thread
+     */
+    private static final class Memo {
+
+        private AdaptiveLogContext context;
+
+        private boolean sampled;
+    }
+}
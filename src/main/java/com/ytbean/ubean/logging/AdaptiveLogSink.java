@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * The interface AdaptiveLogSink, the destination of the {@link AdaptiveLogEvent}s built by a
+ * {@link SinkLoggerFactory}
+ *
+ * @author ytbean
+ * @date 2026/10/19 09:30
+ */
+public interface AdaptiveLogSink extends Closeable {
+
+    /**
+     * accept an event, implementations must be thread safe
+     *
+     * @param event the event
+     */
+    void accept(AdaptiveLogEvent event);
+
+    /**
+     * accept a batch of events as one unit, implementations should override this to pay their locking and I/O
+     * once per batch instead of once per event
+     *
+     * @param events the events, in order
+     */
+    default void acceptAll(List<AdaptiveLogEvent> events) {
+        for (AdaptiveLogEvent event : events) {
+            accept(event);
+        }
+    }
+
+    /**
+     * flush the buffered events if any
+     */
+    default void flush() {
+        //implemented by subclass
+    }
+
+    /**
+     * flush and release the underlying resources
+     */
+    @Override
+    default void close() {
+        flush();
+    }
+}
@@ -461,4 +461,19 @@ public interface AdaptiveLogger {
      * @param t the exception (throwable) to log
      */
     void log(AdaptiveLogLevel level, Throwable t);
+
+    /**
+     * Create a batch collecting the log calls made on it, the collected events are handed over to the
+     * underlying sink as one unit when the batch is flushed or closed.
+     * <p/>
+     * <p>A batch is meant to be used by a single thread, typically in a try-with-resources block around a loop.
+     * Backends without a batch entry point, such as SLF4J, receive the events one by one as they are logged, so
+     * they keep their own time, thread and caller location; such a batch holds nothing. So does the batch of a
+     * logger not overriding this method.</p>
+     *
+     * @return a new batch
+     */
+    default AdaptiveLogBatch batch() {
+        return new EventBatch(this, new ReplaySink(this), false);
+    }
 }
@@ -29,12 +29,15 @@ public abstract class AdaptiveLoggerFactory {
 
     private static volatile AdaptiveLoggerFactory defaultFactory;
 
+    private static volatile AdaptiveLogSamplingPolicy samplingPolicy;
+
     public static AdaptiveLogger getLogger(Class<?> clazz) {
         return getLogger(clazz.getName());
     }
 
     public static AdaptiveLogger getLogger(String name) {
-        return getDefaultFactory().newInstance(name);
+        //wrapped even without a policy, so that a policy set later applies to the loggers held in static fields
+        return new SampledLogger(getDefaultFactory().newInstance(name));
     }
 
 
@@ -45,6 +48,19 @@ public abstract class AdaptiveLoggerFactory {
         AdaptiveLoggerFactory.defaultFactory = defaultFactory;
     }
 
+    /**
+     * set the request sampling policy, applies to the loggers already created as well
+     *
+     * @param samplingPolicy the policy, or null to keep every log
+     */
+    public static void setSamplingPolicy(AdaptiveLogSamplingPolicy samplingPolicy) {
+        AdaptiveLoggerFactory.samplingPolicy = samplingPolicy;
+    }
+
+    public static AdaptiveLogSamplingPolicy getSamplingPolicy() {
+        return samplingPolicy;
+    }
+
     protected abstract AdaptiveLogger newInstance(String name);
 
     private static AdaptiveLoggerFactory getDefaultFactory() {
@@ -65,7 +81,8 @@ public abstract class AdaptiveLoggerFactory {
                     "logging framework");
             return loggerFactory;
         }
-        throw new UnsupportedOperationException("not supported except SLF4J");
+        //no SLF4J binding, or no SLF4J at all: the library must still work, silently
+        return new NOPFactory();
     }
 
 
@@ -76,8 +93,16 @@ public abstract class AdaptiveLoggerFactory {
                 return null;
             }
             return new SLF4JLoggerFactory();
-        } catch (Exception e) {
+        } catch (Exception | LinkageError e) {
             return null;
         }
     }
+
+    private static final class NOPFactory extends AdaptiveLoggerFactory {
+
+        @Override
+        protected AdaptiveLogger newInstance(String name) {
+            return new NOPAdaptiveLogger(name);
+        }
+    }
 }
@@ -0,0 +1,195 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The class AsyncLogSink, hands events over to a background thread which feeds the downstream sink.
+ * <p/>
+ * <p>Events are queued as they are: the {@link AdaptiveLogContext} they reference is captured, not copied. When the
+ * bounded queue is full the event is dropped and counted rather than blocking the caller. Whatever the worker
+ * drains in one round is handed over to the downstream sink with a single {@link #acceptAll(List)}.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 10:15
+ */
+public class AsyncLogSink implements AdaptiveLogSink {
+
+    private static final int DRAIN_LIMIT = 1024;
+
+    private final AdaptiveLogSink downstream;
+
+    /**
+     * holds single events and batches, a batch is queued as one unit so it is never split
+     */
+    private final BlockingQueue<Object> queue;
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * the events handed to this sink, and the ones delivered or dropped since, a flush waits for the latter to
+     * catch up with the value of the former when called
+     */
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder settled = new LongAdder();
+
+    private final Lock settleLock = new ReentrantLock();
+
+    private final Condition settledCondition = settleLock.newCondition();
+
+    private final Thread worker;
+
+    private volatile boolean closed;
+
+    public AsyncLogSink(AdaptiveLogSink downstream, int capacity) {
+        if (downstream == null) {
+            throw new NullPointerException("downstream");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        this.downstream = downstream;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.worker = new Thread(this::drainLoop, "adaptive-log-async");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void accept(AdaptiveLogEvent event) {
+        submitted.increment();
+        if (closed || !queue.offer(event)) {
+            dropped.increment();
+            settled.increment();
+        }
+    }
+
+    @Override
+    public void acceptAll(List<AdaptiveLogEvent> events) {
+        submitted.add(events.size());
+        if (closed || !queue.offer(events)) {
+            dropped.add(events.size());
+            settled.add(events.size());
+        }
+    }
+
+    /**
+     * get the number of events dropped because the queue was full or the sink closed
+     *
+     * @return the number of dropped events
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void flush() {
+        //the events submitted later are not waited for, so a flush ends under a steady load
+        long target = submitted.sum();
+        settleLock.lock();
+        try {
+            while (settled.sum() < target && worker.isAlive()) {
+                settledCondition.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            settleLock.unlock();
+        }
+        downstream.flush();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        downstream.close();
+    }
+
+    private void drainLoop() {
+        try {
+            drain();
+        } finally {
+            //wake up the flushes, nothing will be delivered anymore
+            signalSettled();
+        }
+    }
+
+    private void drain() {
+        List<Object> units = new ArrayList<>(DRAIN_LIMIT);
+        List<AdaptiveLogEvent> events = new ArrayList<>(DRAIN_LIMIT);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Object first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                units.add(first);
+            } catch (InterruptedException e) {
+                //not expected, the worker is stopped through the closed flag
+            }
+            queue.drainTo(units, DRAIN_LIMIT);
+            for (Object unit : units) {
+                if (unit instanceof AdaptiveLogEvent) {
+                    events.add((AdaptiveLogEvent) unit);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    List<AdaptiveLogEvent> batch = (List<AdaptiveLogEvent>) unit;
+                    events.addAll(batch);
+                }
+            }
+            deliver(events);
+            units.clear();
+            events.clear();
+        }
+    }
+
+    /**
+     * everything drained in one round goes downstream as a single batch
+     */
+    private void deliver(List<AdaptiveLogEvent> events) {
+        try {
+            downstream.acceptAll(events);
+        } catch (RuntimeException e) {
+            dropped.add(events.size());
+        }
+        settled.add(events.size());
+        signalSettled();
+    }
+
+    private void signalSettled() {
+        settleLock.lock();
+        try {
+            settledCondition.signalAll();
+        } finally {
+            settleLock.unlock();
+        }
+    }
+}
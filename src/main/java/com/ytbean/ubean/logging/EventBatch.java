@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The class EventBatch, not thread safe. A batch which does not collect hands every event over to the sink as soon
+ * as it is logged
+ *
+ * @author ytbean
+ * @date 2026/10/19 13:12
+ */
+final class EventBatch extends AbstractEventLogger implements AdaptiveLogBatch {
+
+    private final AdaptiveLogger owner;
+
+    private final AdaptiveLogSink sink;
+
+    private final boolean collecting;
+
+    private List<AdaptiveLogEvent> events = new ArrayList<>();
+
+    EventBatch(AdaptiveLogger owner, AdaptiveLogSink sink, boolean collecting) {
+        super(owner.name());
+        this.owner = owner;
+        this.sink = sink;
+        this.collecting = collecting;
+    }
+
+    @Override
+    public boolean isEnabled(AdaptiveLogLevel level) {
+        return owner.isEnabled(level);
+    }
+
+    @Override
+    protected void emit(AdaptiveLogEvent event) {
+        if (collecting) {
+            events.add(event);
+        } else {
+            sink.accept(event);
+        }
+    }
+
+    @Override
+    public int size() {
+        return events.size();
+    }
+
+    @Override
+    public void flush() {
+        if (events.isEmpty()) {
+            return;
+        }
+        //the sink may keep the list (e.g. an async sink), so hand it over instead of clearing it
+        List<AdaptiveLogEvent> flushed = events;
+        events = new ArrayList<>(flushed.size());
+        sink.acceptAll(flushed);
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    @Override
+    public AdaptiveLogBatch batch() {
+        return owner.batch();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class FileLogSink, appends events to a file as text lines.
+ * <p/>
+ * <p>A batch is rendered into a single buffer and written with one lock acquisition and one write call, whereas a
+ * single event pays both for itself. I/O failures are counted, they never reach the logging caller.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 13:31
+ */
+public class FileLogSink implements AdaptiveLogSink {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private final FileChannel channel;
+
+    private final StringBuilder text = new StringBuilder(256);
+
+    private final LongAdder failed = new LongAdder();
+
+    public FileLogSink(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void accept(AdaptiveLogEvent event) {
+        acceptAll(Collections.singletonList(event));
+    }
+
+    @Override
+    public synchronized void acceptAll(List<AdaptiveLogEvent> events) {
+        text.setLength(0);
+        for (AdaptiveLogEvent event : events) {
+            format(event, text);
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            failed.add(events.size());
+        }
+    }
+
+    /**
+     * get the number of events lost on I/O failures
+     *
+     * @return the number of failed events
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            //best effort, the data is already handed over to the OS
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            //nothing left to do
+        }
+    }
+
+    static void format(AdaptiveLogEvent event, StringBuilder text) {
+        TIMESTAMP_FORMAT.formatTo(Instant.ofEpochMilli(event.timestamp()), text);
+        text.append(" [").append(event.level()).append(']');
+        text.append('[').append(event.threadName()).append(']');
+        text.append('[').append(event.loggerName()).append("] ");
+        text.append(event.message());
+        if (!event.context().isEmpty()) {
+            text.append(' ').append(event.context());
+        }
+        text.append('\n');
+        if (event.cause() != null) {
+            StringWriter trace = new StringWriter();
+            event.cause().printStackTrace(new PrintWriter(trace));
+            text.append(trace);
+        }
+    }
+}
@@ -31,22 +31,37 @@ final class LocationAwareSLF4JLogger extends AbstractAdaptiveLogger {
 
     private final transient LocationAwareLogger logger;
 
+    /**
+     * the class the backend looks for in the stack to find the caller
+     */
+    private final String fqcn;
+
     LocationAwareSLF4JLogger(LocationAwareLogger logger) {
+        this(logger, FQCN);
+    }
+
+    private LocationAwareSLF4JLogger(LocationAwareLogger logger, String fqcn) {
         super(logger.getName());
         this.logger = logger;
+        this.fqcn = fqcn;
+    }
+
+    @Override
+    AdaptiveLogger wrappedBy(String fqcn) {
+        return new LocationAwareSLF4JLogger(logger, fqcn);
     }
 
 
     private void log(final int level, final String message) {
-        logger.log(null, FQCN, level, message, null, null);
+        logger.log(null, fqcn, level, message, null, null);
     }
 
     private void log(final int level, final String message, Throwable cause) {
-        logger.log(null, FQCN, level, message, null, cause);
+        logger.log(null, fqcn, level, message, null, cause);
     }
 
     private void log(final int level, final org.slf4j.helpers.FormattingTuple tuple) {
-        logger.log(null, FQCN, level, tuple.getMessage(), tuple.getArgArray(), tuple.getThrowable());
+        logger.log(null, fqcn, level, tuple.getMessage(), tuple.getArgArray(), tuple.getThrowable());
     }
 
     @Override
@@ -0,0 +1,249 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The class LogEventCodec, the binary form of an {@link AdaptiveLogEvent}.
+ * <p/>
+ * <p>A record is length-prefixed: {@code int length} followed by the body made of {@code long timestamp},
+ * {@code byte level}, the logger name, the thread name, the message, the stack trace of the cause and the context
+ * entries. Strings are written as {@code int length} + UTF-8 bytes, {@code -1} standing for null. Strings are
+ * encoded straight into the target buffer, so encoding an event costs a copy of its characters.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 14:10
+ */
+public final class LogEventCodec {
+
+    private static final AdaptiveLogLevel[] LEVELS = AdaptiveLogLevel.values();
+
+    private LogEventCodec() {
+    }
+
+    /**
+     * get the size of the record of an event, length prefix included
+     *
+     * @param event the event
+     * @return the size in bytes
+     */
+    public static int encodedLength(AdaptiveLogEvent event) {
+        return encodedLength(event, stackTrace(event.cause()));
+    }
+
+    /**
+     * write the record of an event at the position of the buffer
+     *
+     * @param event  the event
+     * @param buffer the buffer, must have at least {@link #encodedLength(AdaptiveLogEvent)} bytes remaining
+     */
+    public static void encode(AdaptiveLogEvent event, ByteBuffer buffer) {
+        encode(event, stackTrace(event.cause()), buffer);
+    }
+
+    /**
+     * write the record of an event if it fits in the remaining space of the buffer
+     *
+     * @param event  the event
+     * @param buffer the buffer
+     * @return false if the event does not fit, the buffer is left untouched in that case
+     */
+    public static boolean tryEncode(AdaptiveLogEvent event, ByteBuffer buffer) {
+        return tryEncode(event, stackTrace(event.cause()), buffer);
+    }
+
+    /**
+     * write the record of an event if it fits, with the stack trace of its cause rendered beforehand
+     *
+     * @param event      the event
+     * @param stackTrace the stack trace of the cause of the event, see {@link #stackTrace(Throwable)}
+     * @param buffer     the buffer
+     * @return false if the event does not fit, the buffer is left untouched in that case
+     */
+    static boolean tryEncode(AdaptiveLogEvent event, String stackTrace, ByteBuffer buffer) {
+        if (encodedLength(event, stackTrace) > buffer.remaining()) {
+            return false;
+        }
+        encode(event, stackTrace, buffer);
+        return true;
+    }
+
+    /**
+     * read the record at the position of the buffer
+     *
+     * @param buffer the buffer
+     * @return the event, the cause if any is a {@link DecodedCause}
+     */
+    public static AdaptiveLogEvent decode(ByteBuffer buffer) {
+        buffer.getInt();
+        long timestamp = buffer.getLong();
+        AdaptiveLogLevel level = LEVELS[buffer.get()];
+        String loggerName = getString(buffer);
+        String threadName = getString(buffer);
+        String message = getString(buffer);
+        String stackTrace = getString(buffer);
+        int entries = buffer.getInt();
+        AdaptiveLogContext context = AdaptiveLogContext.EMPTY;
+        for (int i = 0; i < entries; i++) {
+            context = context.with(getString(buffer), getString(buffer));
+        }
+        return new AdaptiveLogEvent(timestamp, level, loggerName, threadName, message,
+                stackTrace == null ? null : new DecodedCause(stackTrace), context);
+    }
+
+    private static int encodedLength(AdaptiveLogEvent event, String stackTrace) {
+        int length = 4 + 8 + 1 + 4 + 4 + 4 + 4 + 4;
+        length += utf8Length(event.loggerName()) + utf8Length(event.threadName()) + utf8Length(event.message())
+                + utf8Length(stackTrace);
+        AdaptiveLogContext context = event.context();
+        for (int i = 0; i < context.size(); i++) {
+            length += 8 + utf8Length(context.keyAt(i)) + utf8Length(context.valueAt(i));
+        }
+        return length;
+    }
+
+    private static void encode(AdaptiveLogEvent event, String stackTrace, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putInt(0);
+        buffer.putLong(event.timestamp());
+        buffer.put((byte) event.level().ordinal());
+        putString(buffer, event.loggerName());
+        putString(buffer, event.threadName());
+        putString(buffer, event.message());
+        putString(buffer, stackTrace);
+        AdaptiveLogContext context = event.context();
+        buffer.putInt(context.size());
+        for (int i = 0; i < context.size(); i++) {
+            putString(buffer, context.keyAt(i));
+            putString(buffer, context.valueAt(i));
+        }
+        buffer.putInt(start, buffer.position() - start - 4);
+    }
+
+    /**
+     * render the stack trace of the cause of an event as it is encoded
+     *
+     * @param cause the cause, may be null
+     * @return the stack trace, or null without a cause
+     */
+    static String stackTrace(Throwable cause) {
+        if (cause == null) {
+            return null;
+        }
+        if (cause instanceof DecodedCause) {
+            return cause.getMessage();
+        }
+        StringWriter trace = new StringWriter();
+        cause.printStackTrace(new PrintWriter(trace));
+        return trace.toString();
+    }
+
+    private static int utf8Length(String s) {
+        if (s == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    length++;
+                }
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void putString(ByteBuffer buffer, String s) {
+        if (s == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        int lengthAt = buffer.position();
+        buffer.putInt(0);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xc0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    buffer.put((byte) (0xf0 | codePoint >> 18));
+                    buffer.put((byte) (0x80 | codePoint >> 12 & 0x3f));
+                    buffer.put((byte) (0x80 | codePoint >> 6 & 0x3f));
+                    buffer.put((byte) (0x80 | codePoint & 0x3f));
+                } else {
+                    buffer.put((byte) '?');
+                }
+            } else {
+                buffer.put((byte) (0xe0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3f));
+                buffer.put((byte) (0x80 | c & 0x3f));
+            }
+        }
+        buffer.putInt(lengthAt, buffer.position() - lengthAt - 4);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String s;
+        if (buffer.hasArray()) {
+            s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.duplicate().get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return s;
+    }
+
+    /**
+     * The class DecodedCause, stands for the cause of a decoded event, its message is the original stack trace
+     */
+    public static final class DecodedCause extends Throwable {
+
+        private static final long serialVersionUID = 1L;
+
+        DecodedCause(String stackTrace) {
+            super(stackTrace, null, false, false);
+        }
+
+        @Override
+        public String toString() {
+            return getMessage();
+        }
+    }
+}
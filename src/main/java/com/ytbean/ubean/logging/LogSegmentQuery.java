@@ -0,0 +1,308 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.ytbean.ubean.logging.SegmentLogSink.*;
+
+/**
+ * The class LogSegmentQuery, finds the events written by a {@link SegmentLogSink} by level, logger and time range.
+ * <p/>
+ * <p>Indexes and segments are memory-mapped. A segment out of the time range is skipped on its last index entry, and
+ * the first block in range is found by a binary search; after that only the blocks whose index entry may match are
+ * scanned, and within a block records are filtered on their header before being decoded.</p>
+ * <p/>
+ * <pre>
+ * java com.ytbean.ubean.logging.LogSegmentQuery &lt;directory&gt; &lt;name&gt; [--level=ERROR] [--logger=X]
+ *      [--from=2026-10-19T10:01] [--to=2026-10-19T10:03]
+ * </pre>
+ *
+ * @author ytbean
+ * @date 2026/10/19 16:30
+ */
+public final class LogSegmentQuery {
+
+    /**
+     * the positions of the time range of the segment so far in an index entry
+     */
+    private static final int SEGMENT_MIN = 16;
+
+    private static final int SEGMENT_MAX = 24;
+
+    private final Path directory;
+
+    private final String name;
+
+    private AdaptiveLogLevel level = AdaptiveLogLevel.TRACE;
+
+    private String loggerName;
+
+    private long from = Long.MIN_VALUE;
+
+    private long to = Long.MAX_VALUE;
+
+    private long scannedBlocks;
+
+    private long readEntries;
+
+    public LogSegmentQuery(Path directory, String name) {
+        this.directory = directory;
+        this.name = name;
+    }
+
+    /**
+     * only match the events at or above the given level
+     *
+     * @param level the minimum level
+     * @return this query
+     */
+    public LogSegmentQuery level(AdaptiveLogLevel level) {
+        this.level = level;
+        return this;
+    }
+
+    /**
+     * only match the events of the given logger
+     *
+     * @param loggerName the logger name
+     * @return this query
+     */
+    public LogSegmentQuery logger(String loggerName) {
+        this.loggerName = loggerName;
+        return this;
+    }
+
+    /**
+     * only match the events in the given time range
+     *
+     * @param from the lower bound in milliseconds since epoch, inclusive
+     * @param to   the upper bound in milliseconds since epoch, inclusive
+     * @return this query
+     */
+    public LogSegmentQuery between(long from, long to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * get the number of blocks scanned by the last run
+     *
+     * @return the number of blocks
+     */
+    public long scannedBlocks() {
+        return scannedBlocks;
+    }
+
+    /**
+     * get the number of index entries read by the last run
+     *
+     * @return the number of entries
+     */
+    public long readEntries() {
+        return readEntries;
+    }
+
+    public List<AdaptiveLogEvent> run() throws IOException {
+        List<AdaptiveLogEvent> events = new ArrayList<>();
+        run(events::add);
+        return events;
+    }
+
+    /**
+     * run the query
+     *
+     * @param consumer receives the matching events, in segment order
+     * @return the number of matching events
+     * @throws IOException if fails to read the segments
+     */
+    public long run(Consumer<AdaptiveLogEvent> consumer) throws IOException {
+        scannedBlocks = 0;
+        readEntries = 0;
+        long matched = 0;
+        for (Path segment : SegmentLogSink.segments(directory, name)) {
+            Path indexFile = sibling(segment, INDEX_SUFFIX);
+            if (!Files.exists(indexFile)) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                //an index may end with a partially written entry if the writer crashed, ignore it
+                int entries = (int) (channel.size() / BLOCK_ENTRY_LENGTH);
+                if (entries == 0) {
+                    continue;
+                }
+                ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        (long) entries * BLOCK_ENTRY_LENGTH);
+                matched += run(segment, index, entries, consumer);
+            }
+        }
+        return matched;
+    }
+
+    private long run(Path segment, ByteBuffer index, int entries, Consumer<AdaptiveLogEvent> consumer)
+            throws IOException {
+        //the last entry bounds the whole segment
+        int last = (entries - 1) * BLOCK_ENTRY_LENGTH;
+        readEntries++;
+        if (index.getLong(last + SEGMENT_MAX) < from || index.getLong(last + SEGMENT_MIN) > to) {
+            return 0;
+        }
+        Integer loggerId = null;
+        if (loggerName != null && (loggerId = loggerIds(segment).get(loggerName)) == null) {
+            return 0;
+        }
+        int levelMask = -1 << level.ordinal();
+        long matched = 0;
+        MappedByteBuffer mapped = null;
+        for (int i = firstEntry(index, entries); i < entries; i++) {
+            readEntries++;
+            int entry = i * BLOCK_ENTRY_LENGTH;
+            long minTimestamp = index.getLong(entry);
+            long maxTimestamp = index.getLong(entry + 8);
+            long offset = index.getLong(entry + 32);
+            int length = index.getInt(entry + 40);
+            int blockLevels = index.getInt(entry + 44);
+            long blockLoggers = index.getLong(entry + 48);
+            if (loggerId != null && (blockLoggers & 1L << (loggerId & 63)) == 0) {
+                continue;
+            }
+            if (maxTimestamp < from || minTimestamp > to || (blockLevels & levelMask) == 0) {
+                continue;
+            }
+            if (mapped == null) {
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+            scannedBlocks++;
+            matched += scan(mapped, offset, length, loggerId, consumer);
+        }
+        return matched;
+    }
+
+    /**
+     * binary search the first entry which may hold an event from {@link #from}, the maximum of the segment so far
+     * only grows from one entry to the next
+     */
+    private int firstEntry(ByteBuffer index, int entries) {
+        int low = 0;
+        int high = entries - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            readEntries++;
+            if (index.getLong(middle * BLOCK_ENTRY_LENGTH + SEGMENT_MAX) < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static Map<String, Integer> loggerIds(Path segment) throws IOException {
+        Path namesFile = sibling(segment, NAMES_SUFFIX);
+        Map<String, Integer> loggerIds = new HashMap<>();
+        if (!Files.exists(namesFile)) {
+            return loggerIds;
+        }
+        ByteBuffer names = ByteBuffer.wrap(Files.readAllBytes(namesFile));
+        //stop at a partially written entry
+        while (names.remaining() >= 8 && names.remaining() - 8 >= names.getInt(names.position() + 4)) {
+            int id = names.getInt();
+            byte[] bytes = new byte[names.getInt()];
+            names.get(bytes);
+            loggerIds.put(new String(bytes, StandardCharsets.UTF_8), id);
+        }
+        return loggerIds;
+    }
+
+    private static Path sibling(Path segment, String suffix) {
+        String fileName = segment.getFileName().toString();
+        return segment.resolveSibling(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()) + suffix);
+    }
+
+    private long scan(ByteBuffer mapped, long offset, int length, Integer loggerId,
+                      Consumer<AdaptiveLogEvent> consumer) {
+        ByteBuffer block = mapped.duplicate();
+        block.limit((int) offset + length).position((int) offset);
+        long matched = 0;
+        while (block.hasRemaining()) {
+            int id = block.getInt();
+            int record = block.position();
+            int next = record + 4 + block.getInt(record);
+            long timestamp = block.getLong(record + 4);
+            int ordinal = block.get(record + 12);
+            if ((loggerId == null || loggerId == id) && ordinal >= level.ordinal()
+                    && timestamp >= from && timestamp <= to) {
+                consumer.accept(LogEventCodec.decode(block));
+                matched++;
+            }
+            block.position(next);
+        }
+        return matched;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: LogSegmentQuery <directory> <name> [--level=ERROR] [--logger=X] "
+                    + "[--from=2026-10-19T10:01] [--to=2026-10-19T10:03]");
+            System.exit(1);
+        }
+        LogSegmentQuery query = new LogSegmentQuery(Paths.get(args[0]), args[1]);
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        for (int i = 2; i < args.length; i++) {
+            String value = args[i].substring(args[i].indexOf('=') + 1);
+            if (args[i].startsWith("--level=")) {
+                query.level(AdaptiveLogLevel.valueOf(value));
+            } else if (args[i].startsWith("--logger=")) {
+                query.logger(value);
+            } else if (args[i].startsWith("--from=")) {
+                from = LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } else if (args[i].startsWith("--to=")) {
+                to = LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } else {
+                throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        query.between(from, to);
+        StringBuilder text = new StringBuilder();
+        long started = System.nanoTime();
+        long matched = query.run(event -> {
+            text.setLength(0);
+            FileLogSink.format(event, text);
+            System.out.print(text);
+        });
+        System.err.printf("%d events, %d blocks scanned in %d ms%n", matched, query.scannedBlocks(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class LogShippingSink, streams events to a node-local collector.
+ * <p/>
+ * <p>Events are encoded by {@link LogEventCodec} straight into a bounded batch buffer, a background sender swaps
+ * the buffer and writes it as one frame: {@code int length}, {@code int count} followed by the records. When the
+ * collector is unreachable the sender keeps the frame and reconnects with an exponential backoff, meanwhile new
+ * events fill the other buffer and are dropped (and counted) once it is full, so the logging caller never blocks.</p>
+ * <p/>
+ * <p>The collector is reached through a Unix domain socket when a socket path is given and the runtime supports it
+ * (Java 16+), through loopback TCP otherwise.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 14:40
+ */
+public class LogShippingSink implements AdaptiveLogSink {
+
+    static final int FRAME_HEADER_LENGTH = 8;
+
+    private static final long INITIAL_BACKOFF_MILLIS = 50;
+
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private static final long FLUSH_TIMEOUT_MILLIS = 2 * MAX_BACKOFF_MILLIS;
+
+    private final Path socketPath;
+
+    private final int port;
+
+    private final long lingerMillis;
+
+    private final Object lock = new Object();
+
+    private ByteBuffer active;
+
+    private int activeCount;
+
+    /**
+     * the events taken into a batch, and the ones the sender is done with since, shipped or dropped
+     */
+    private long accepted;
+
+    private long settled;
+
+    private int flushing;
+
+    private final LongAdder shipped = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final Thread sender;
+
+    private volatile boolean closed;
+
+    /**
+     * owned by the sender thread
+     */
+    private SocketChannel channel;
+
+    public LogShippingSink(int port, int bufferSize) {
+        this(null, port, bufferSize, 5, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * create a sink shipping to a local collector
+     *
+     * @param socketPath the Unix domain socket of the collector, or null to use TCP only
+     * @param port       the loopback TCP port of the collector, used when Unix domain sockets are not available
+     * @param bufferSize the size of each of the two batch buffers
+     * @param linger     how long the sender waits for a batch to fill up before shipping it
+     * @param unit       the unit of {@code linger}
+     */
+    public LogShippingSink(Path socketPath, int port, int bufferSize, long linger, TimeUnit unit) {
+        if (bufferSize <= FRAME_HEADER_LENGTH) {
+            throw new IllegalArgumentException("bufferSize: " + bufferSize);
+        }
+        this.socketPath = socketPath;
+        this.port = port;
+        this.lingerMillis = unit.toMillis(linger);
+        this.active = newBuffer(bufferSize);
+        this.sender = new Thread(() -> sendLoop(newBuffer(bufferSize)), "adaptive-log-shipper");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    @Override
+    public void accept(AdaptiveLogEvent event) {
+        //rendered before taking the lock, the sender and the other callers do not wait for it
+        String stackTrace = LogEventCodec.stackTrace(event.cause());
+        synchronized (lock) {
+            append(event, stackTrace);
+        }
+    }
+
+    @Override
+    public void acceptAll(List<AdaptiveLogEvent> events) {
+        String[] stackTraces = new String[events.size()];
+        for (int i = 0; i < stackTraces.length; i++) {
+            stackTraces[i] = LogEventCodec.stackTrace(events.get(i).cause());
+        }
+        synchronized (lock) {
+            for (int i = 0; i < stackTraces.length; i++) {
+                append(events.get(i), stackTraces[i]);
+            }
+        }
+    }
+
+    private void append(AdaptiveLogEvent event, String stackTrace) {
+        if (closed || !LogEventCodec.tryEncode(event, stackTrace, active)) {
+            dropped.increment();
+            return;
+        }
+        accepted++;
+        if (activeCount++ == 0 || active.position() >= active.capacity() >> 1) {
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * get the number of events written to the collector
+     *
+     * @return the number of shipped events
+     */
+    public long shipped() {
+        return shipped.sum();
+    }
+
+    /**
+     * get the number of events dropped because the buffer was full, the collector unreachable or the sink closed
+     *
+     * @return the number of dropped events
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * wait until the sender is done with the events accepted so far, for as long as two retries at the longest
+     * backoff, so an unreachable collector does not hold the caller forever
+     */
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            //the events accepted later are not waited for, so a flush ends under a steady load
+            long target = accepted;
+            long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+            long remaining;
+            flushing++;
+            try {
+                lock.notifyAll();
+                while (settled < target && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    lock.wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                flushing--;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        try {
+            sender.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendLoop(ByteBuffer spare) {
+        ByteBuffer frame = spare;
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        while (true) {
+            int count;
+            synchronized (lock) {
+                try {
+                    while (activeCount == 0 && !closed) {
+                        lock.wait();
+                    }
+                    if (!closed && flushing == 0 && lingerMillis > 0 && active.position() < active.capacity() >> 1) {
+                        lock.wait(lingerMillis);
+                    }
+                } catch (InterruptedException e) {
+                    //not expected, the sender is stopped through the closed flag
+                }
+                if (activeCount == 0) {
+                    break;
+                }
+                ByteBuffer filled = active;
+                active = frame;
+                frame = filled;
+                count = activeCount;
+                activeCount = 0;
+            }
+            frame.putInt(0, frame.position() - 4);
+            frame.putInt(4, count);
+            frame.flip();
+            backoffMillis = ship(frame, count, backoffMillis);
+            synchronized (lock) {
+                settled += count;
+                lock.notifyAll();
+            }
+            frame.clear();
+            frame.position(FRAME_HEADER_LENGTH);
+        }
+        closeChannel();
+    }
+
+    private long ship(ByteBuffer frame, int count, long backoffMillis) {
+        while (true) {
+            try {
+                if (channel == null) {
+                    channel = connect();
+                }
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+                shipped.add(count);
+                return INITIAL_BACKOFF_MILLIS;
+            } catch (IOException e) {
+                closeChannel();
+                if (closed) {
+                    dropped.add(count);
+                    return backoffMillis;
+                }
+                frame.rewind();
+                sleep(backoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1));
+                backoffMillis = Math.min(backoffMillis << 1, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private SocketChannel connect() throws IOException {
+        if (socketPath != null && UnixSockets.SUPPORTED) {
+            return UnixSockets.connect(socketPath);
+        }
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                //nothing left to do
+            }
+            channel = null;
+        }
+    }
+
+    private void sleep(long millis) {
+        synchronized (lock) {
+            try {
+                if (!closed) {
+                    lock.wait(millis);
+                }
+            } catch (InterruptedException e) {
+                //not expected, the sender is stopped through the closed flag
+            }
+        }
+    }
+
+    private static ByteBuffer newBuffer(int size) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        buffer.position(FRAME_HEADER_LENGTH);
+        return buffer;
+    }
+
+    /**
+     * Unix domain sockets, looked up reflectively since they only exist from Java 16 on
+     */
+    static final class UnixSockets {
+
+        static final boolean SUPPORTED;
+
+        private static final ProtocolFamily UNIX;
+
+        static {
+            ProtocolFamily unix = null;
+            try {
+                Class.forName("java.net.UnixDomainSocketAddress");
+                unix = StandardProtocolFamily.valueOf("UNIX");
+            } catch (ClassNotFoundException | IllegalArgumentException e) {
+                //running on Java 15 or older
+            }
+            UNIX = unix;
+            SUPPORTED = unix != null;
+        }
+
+        private UnixSockets() {
+        }
+
+        static SocketAddress address(Path path) throws IOException {
+            try {
+                return (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                        .getMethod("of", Path.class).invoke(null, path);
+            } catch (ReflectiveOperationException e) {
+                throw new IOException("Unix domain sockets are not supported", e);
+            }
+        }
+
+        static SocketChannel connect(Path path) throws IOException {
+            SocketChannel channel;
+            try {
+                channel = (SocketChannel) SocketChannel.class.getMethod("open", ProtocolFamily.class)
+                        .invoke(null, UNIX);
+            } catch (ReflectiveOperationException e) {
+                throw new IOException("Unix domain sockets are not supported", e);
+            }
+            try {
+                channel.connect(address(path));
+                return channel;
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        static ProtocolFamily family() {
+            return UNIX;
+        }
+    }
+}
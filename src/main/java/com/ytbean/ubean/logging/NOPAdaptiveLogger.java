@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+/**
+ * The class NOPAdaptiveLogger, drops every log, used when no logging framework is available
+ *
+ * @author ytbean
+ * @date 2026/10/20 05:00
+ */
+final class NOPAdaptiveLogger extends AbstractAdaptiveLogger {
+
+    NOPAdaptiveLogger(String name) {
+        super(name);
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return false;
+    }
+
+    @Override
+    public void trace(String msg) {
+        //nothing to log
+    }
+
+    @Override
+    public void trace(String format, Object arg) {
+        //nothing to log
+    }
+
+    @Override
+    public void trace(String format, Object argA, Object argB) {
+        //nothing to log
+    }
+
+    @Override
+    public void trace(String format, Object... arguments) {
+        //nothing to log
+    }
+
+    @Override
+    public void trace(String msg, Throwable t) {
+        //nothing to log
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return false;
+    }
+
+    @Override
+    public void debug(String msg) {
+        //nothing to log
+    }
+
+    @Override
+    public void debug(String format, Object arg) {
+        //nothing to log
+    }
+
+    @Override
+    public void debug(String format, Object argA, Object argB) {
+        //nothing to log
+    }
+
+    @Override
+    public void debug(String format, Object... arguments) {
+        //nothing to log
+    }
+
+    @Override
+    public void debug(String msg, Throwable t) {
+        //nothing to log
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return false;
+    }
+
+    @Override
+    public void info(String msg) {
+        //nothing to log
+    }
+
+    @Override
+    public void info(String format, Object arg) {
+        //nothing to log
+    }
+
+    @Override
+    public void info(String format, Object argA, Object argB) {
+        //nothing to log
+    }
+
+    @Override
+    public void info(String format, Object... arguments) {
+        //nothing to log
+    }
+
+    @Override
+    public void info(String msg, Throwable t) {
+        //nothing to log
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return false;
+    }
+
+    @Override
+    public void warn(String msg) {
+        //nothing to log
+    }
+
+    @Override
+    public void warn(String format, Object arg) {
+        //nothing to log
+    }
+
+    @Override
+    public void warn(String format, Object argA, Object argB) {
+        //nothing to log
+    }
+
+    @Override
+    public void warn(String format, Object... arguments) {
+        //nothing to log
+    }
+
+    @Override
+    public void warn(String msg, Throwable t) {
+        //nothing to log
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return false;
+    }
+
+    @Override
+    public void error(String msg) {
+        //nothing to log
+    }
+
+    @Override
+    public void error(String format, Object arg) {
+        //nothing to log
+    }
+
+    @Override
+    public void error(String format, Object argA, Object argB) {
+        //nothing to log
+    }
+
+    @Override
+    public void error(String format, Object... arguments) {
+        //nothing to log
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+        //nothing to log
+    }
+}
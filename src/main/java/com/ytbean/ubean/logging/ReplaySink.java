@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+/**
+ * The class ReplaySink, replays the events on a logger one by one as they are logged, for backends without a batch
+ * entry point
+ *
+ * @author ytbean
+ * @date 2026/10/19 13:20
+ */
+final class ReplaySink implements AdaptiveLogSink {
+
+    private final AdaptiveLogger logger;
+
+    ReplaySink(AdaptiveLogger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void accept(AdaptiveLogEvent event) {
+        if (event.cause() == null) {
+            logger.log(event.level(), event.message());
+        } else {
+            logger.log(event.level(), event.message(), event.cause());
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import static com.ytbean.ubean.logging.AdaptiveLogLevel.*;
+
+/**
+ * The class SampledLogger, filters the calls of the delegate through an {@link AdaptiveLogSamplingPolicy}, either a
+ * given one or the one currently set on {@link AdaptiveLoggerFactory}.
+ * <p/>
+ * <p>The level of the delegate is checked first, so a call the backend would discard costs no policy lookup, and
+ * the policy is read only for the levels left. The delegate reports this class as the logging boundary, so the
+ * caller location is the code calling this logger.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 11:34
+ */
+final class SampledLogger extends AbstractAdaptiveLogger {
+
+    private static final String FQCN = SampledLogger.class.getName();
+
+    private final AdaptiveLogger delegate;
+
+    private final AdaptiveLogSamplingPolicy policy;
+
+    /**
+     * create a logger following the policy of {@link AdaptiveLoggerFactory}, including its later changes
+     *
+     * @param delegate the logger
+     */
+    SampledLogger(AdaptiveLogger delegate) {
+        this(delegate, null);
+    }
+
+    SampledLogger(AdaptiveLogger delegate, AdaptiveLogSamplingPolicy policy) {
+        super(delegate.name());
+        this.delegate = delegate instanceof AbstractAdaptiveLogger
+                ? ((AbstractAdaptiveLogger) delegate).wrappedBy(FQCN) : delegate;
+        this.policy = policy;
+    }
+
+    private boolean admits(AdaptiveLogLevel level) {
+        AdaptiveLogSamplingPolicy current = policy != null ? policy : AdaptiveLoggerFactory.getSamplingPolicy();
+        if (current == null) {
+            //no policy applies, a single volatile read on top of the level check of the backend
+            return true;
+        }
+        return current.admits(level);
+    }
+
+    @Override
+    protected AdaptiveLogSink batchSink() {
+        //the events of a batch were admitted when collected, they must not be sampled again
+        if (delegate instanceof AbstractAdaptiveLogger) {
+            return ((AbstractAdaptiveLogger) delegate).batchSink();
+        }
+        return null;
+    }
+
+    @Override
+    AdaptiveLogger batchReplay() {
+        if (delegate instanceof AbstractAdaptiveLogger) {
+            return ((AbstractAdaptiveLogger) delegate).batchReplay();
+        }
+        return delegate;
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return delegate.isTraceEnabled() && admits(TRACE);
+    }
+
+    @Override
+    public void trace(String msg) {
+        if (delegate.isTraceEnabled() && admits(TRACE)) {
+            delegate.trace(msg);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object arg) {
+        if (delegate.isTraceEnabled() && admits(TRACE)) {
+            delegate.trace(format, arg);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object argA, Object argB) {
+        if (delegate.isTraceEnabled() && admits(TRACE)) {
+            delegate.trace(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object... arguments) {
+        if (delegate.isTraceEnabled() && admits(TRACE)) {
+            delegate.trace(format, arguments);
+        }
+    }
+
+    @Override
+    public void trace(String msg, Throwable t) {
+        if (delegate.isTraceEnabled() && admits(TRACE)) {
+            delegate.trace(msg, t);
+        }
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled() && admits(DEBUG);
+    }
+
+    @Override
+    public void debug(String msg) {
+        if (delegate.isDebugEnabled() && admits(DEBUG)) {
+            delegate.debug(msg);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object arg) {
+        if (delegate.isDebugEnabled() && admits(DEBUG)) {
+            delegate.debug(format, arg);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object argA, Object argB) {
+        if (delegate.isDebugEnabled() && admits(DEBUG)) {
+            delegate.debug(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object... arguments) {
+        if (delegate.isDebugEnabled() && admits(DEBUG)) {
+            delegate.debug(format, arguments);
+        }
+    }
+
+    @Override
+    public void debug(String msg, Throwable t) {
+        if (delegate.isDebugEnabled() && admits(DEBUG)) {
+            delegate.debug(msg, t);
+        }
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return delegate.isInfoEnabled() && admits(INFO);
+    }
+
+    @Override
+    public void info(String msg) {
+        if (delegate.isInfoEnabled() && admits(INFO)) {
+            delegate.info(msg);
+        }
+    }
+
+    @Override
+    public void info(String format, Object arg) {
+        if (delegate.isInfoEnabled() && admits(INFO)) {
+            delegate.info(format, arg);
+        }
+    }
+
+    @Override
+    public void info(String format, Object argA, Object argB) {
+        if (delegate.isInfoEnabled() && admits(INFO)) {
+            delegate.info(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void info(String format, Object... arguments) {
+        if (delegate.isInfoEnabled() && admits(INFO)) {
+            delegate.info(format, arguments);
+        }
+    }
+
+    @Override
+    public void info(String msg, Throwable t) {
+        if (delegate.isInfoEnabled() && admits(INFO)) {
+            delegate.info(msg, t);
+        }
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return delegate.isWarnEnabled() && admits(WARN);
+    }
+
+    @Override
+    public void warn(String msg) {
+        if (delegate.isWarnEnabled() && admits(WARN)) {
+            delegate.warn(msg);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object arg) {
+        if (delegate.isWarnEnabled() && admits(WARN)) {
+            delegate.warn(format, arg);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object argA, Object argB) {
+        if (delegate.isWarnEnabled() && admits(WARN)) {
+            delegate.warn(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object... arguments) {
+        if (delegate.isWarnEnabled() && admits(WARN)) {
+            delegate.warn(format, arguments);
+        }
+    }
+
+    @Override
+    public void warn(String msg, Throwable t) {
+        if (delegate.isWarnEnabled() && admits(WARN)) {
+            delegate.warn(msg, t);
+        }
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return delegate.isErrorEnabled() && admits(ERROR);
+    }
+
+    @Override
+    public void error(String msg) {
+        if (delegate.isErrorEnabled() && admits(ERROR)) {
+            delegate.error(msg);
+        }
+    }
+
+    @Override
+    public void error(String format, Object arg) {
+        if (delegate.isErrorEnabled() && admits(ERROR)) {
+            delegate.error(format, arg);
+        }
+    }
+
+    @Override
+    public void error(String format, Object argA, Object argB) {
+        if (delegate.isErrorEnabled() && admits(ERROR)) {
+            delegate.error(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void error(String format, Object... arguments) {
+        if (delegate.isErrorEnabled() && admits(ERROR)) {
+            delegate.error(format, arguments);
+        }
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+        if (delegate.isErrorEnabled() && admits(ERROR)) {
+            delegate.error(msg, t);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The class SegmentLogSink, writes events into binary log segments with a sparse side index, see
+ * {@link LogSegmentQuery} to read them back.
+ * <p/>
+ * <p>A segment {@code <name>-<seq>.seg} is a sequence of blocks, each block a sequence of records: the
+ * {@code int} id of the logger name followed by the {@link LogEventCodec} record of the event. Every block written
+ * appends one fixed-length entry to the index {@code <name>-<seq>.idx}: its time range, the time range of the
+ * segment so far, its position, the mask of the levels it contains and a 64-bit mask of the logger ids it contains.
+ * The last entry thus bounds the whole segment, and the segment maximum only grows from one entry to the next, so
+ * a reader can skip a segment or binary search its first block in a time range. Logger names are declared in
+ * {@code <name>-<seq>.names} the first time a block refers to them. Blocks are written with a single write call,
+ * once full or on {@link #flush()}, and a segment is rolled over once it exceeds the segment size, or once a block
+ * fails to be written since a partly written block could not be told from a complete one.</p>
+ *
+ * @author ytbean
+ * @date 2026/10/19 15:50
+ */
+public class SegmentLogSink implements AdaptiveLogSink {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    static final String INDEX_SUFFIX = ".idx";
+
+    static final String NAMES_SUFFIX = ".names";
+
+    static final int BLOCK_ENTRY_LENGTH = 8 + 8 + 8 + 8 + 8 + 4 + 4 + 8;
+
+    /**
+     * segments are memory-mapped by {@link LogSegmentQuery}, their positions must fit in an int
+     */
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final Path directory;
+
+    private final String name;
+
+    private final long segmentSize;
+
+    private final ByteBuffer block;
+
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(BLOCK_ENTRY_LENGTH);
+
+    private final Map<String, Integer> loggerIds = new HashMap<>();
+
+    private final LongAdder failed = new LongAdder();
+
+    private int declaredIds;
+
+    private int sequence;
+
+    private FileChannel segment;
+
+    private FileChannel index;
+
+    private FileChannel names;
+
+    private long segmentMinTimestamp;
+
+    private long segmentMaxTimestamp;
+
+    private long minTimestamp;
+
+    private long maxTimestamp;
+
+    private int levelMask;
+
+    private long loggerMask;
+
+    private int blockEvents;
+
+    /**
+     * create a sink writing segments into {@code directory}
+     *
+     * @param directory   the directory of the segments
+     * @param name        the base name of the segment files
+     * @param segmentSize the size from which a segment is rolled over
+     * @param blockSize   the size of the blocks, i.e. the granularity of the index
+     * @throws IOException if fails to open the first segment
+     */
+    public SegmentLogSink(Path directory, String name, long segmentSize, int blockSize) throws IOException {
+        if (blockSize <= 0 || segmentSize < blockSize || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segmentSize: " + segmentSize + ", blockSize: " + blockSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.block = ByteBuffer.allocate(blockSize);
+        List<Path> existing = segments(directory, name);
+        this.sequence = existing.isEmpty() ? 0 : sequence(name, existing.get(existing.size() - 1));
+        roll();
+    }
+
+    @Override
+    public void accept(AdaptiveLogEvent event) {
+        acceptAll(Collections.singletonList(event));
+    }
+
+    @Override
+    public synchronized void acceptAll(List<AdaptiveLogEvent> events) {
+        for (AdaptiveLogEvent event : events) {
+            append(event);
+        }
+    }
+
+    /**
+     * get the number of events lost on I/O failures
+     *
+     * @return the number of failed events
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    @Override
+    public synchronized void flush() {
+        writeBlock(block);
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        closeSegment();
+    }
+
+    private void append(AdaptiveLogEvent event) {
+        int length = 4 + LogEventCodec.encodedLength(event);
+        if (length > block.remaining()) {
+            writeBlock(block);
+        }
+        //ids are local to a segment, only resolved once the segment the event goes into is open
+        if (segment == null && !rollQuietly()) {
+            failed.increment();
+            return;
+        }
+        int id = loggerId(event.loggerName());
+        if (length > block.remaining()) {
+            //larger than a block, goes into a block of its own
+            ByteBuffer large = ByteBuffer.allocate(length);
+            put(large, id, event);
+            writeBlock(large);
+            return;
+        }
+        put(block, id, event);
+    }
+
+    private void put(ByteBuffer target, int id, AdaptiveLogEvent event) {
+        target.putInt(id);
+        LogEventCodec.encode(event, target);
+        if (blockEvents++ == 0) {
+            minTimestamp = event.timestamp();
+            maxTimestamp = event.timestamp();
+        } else {
+            minTimestamp = Math.min(minTimestamp, event.timestamp());
+            maxTimestamp = Math.max(maxTimestamp, event.timestamp());
+        }
+        levelMask |= 1 << event.level().ordinal();
+        loggerMask |= 1L << (id & 63);
+    }
+
+    /**
+     * write a block and its index entry, the block is emptied whether written or lost
+     */
+    private void writeBlock(ByteBuffer buffer) {
+        if (blockEvents == 0) {
+            return;
+        }
+        try {
+            if (segment == null) {
+                //not expected, append opens a segment before resolving the ids of the events
+                throw new IOException("no open segment");
+            }
+            long offset = segment.position();
+            buffer.flip();
+            int length = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            declareNames();
+            long segmentMin = segmentMinTimestamp == Long.MAX_VALUE ? minTimestamp
+                    : Math.min(segmentMinTimestamp, minTimestamp);
+            long segmentMax = Math.max(segmentMaxTimestamp, maxTimestamp);
+            indexEntry.clear();
+            indexEntry.putLong(minTimestamp).putLong(maxTimestamp).putLong(segmentMin).putLong(segmentMax)
+                    .putLong(offset).putInt(length).putInt(levelMask).putLong(loggerMask);
+            write(index, indexEntry);
+            segmentMinTimestamp = segmentMin;
+            segmentMaxTimestamp = segmentMax;
+        } catch (IOException e) {
+            failed.add(blockEvents);
+            //the segment may end with a partly written block, go on in a new one
+            rollQuietly();
+            return;
+        } finally {
+            buffer.clear();
+            blockEvents = 0;
+            levelMask = 0;
+            loggerMask = 0;
+        }
+        try {
+            if (segment.position() >= segmentSize) {
+                roll();
+            }
+        } catch (IOException e) {
+            closeSegment();
+        }
+    }
+
+    private void declareNames() throws IOException {
+        if (declaredIds == loggerIds.size()) {
+            return;
+        }
+        String[] declared = new String[loggerIds.size()];
+        loggerIds.forEach((loggerName, id) -> declared[id] = loggerName);
+        for (; declaredIds < declared.length; declaredIds++) {
+            byte[] bytes = String.valueOf(declared[declaredIds]).getBytes(StandardCharsets.UTF_8);
+            ByteBuffer entry = ByteBuffer.allocate(8 + bytes.length);
+            entry.putInt(declaredIds).putInt(bytes.length).put(bytes);
+            write(names, entry);
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer entry) throws IOException {
+        entry.flip();
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+    }
+
+    private int loggerId(String loggerName) {
+        Integer id = loggerIds.get(loggerName);
+        if (id == null) {
+            id = loggerIds.size();
+            loggerIds.put(loggerName, id);
+        }
+        return id;
+    }
+
+    private void roll() throws IOException {
+        closeSegment();
+        sequence++;
+        //logger ids are local to a segment
+        loggerIds.clear();
+        declaredIds = 0;
+        segmentMinTimestamp = Long.MAX_VALUE;
+        segmentMaxTimestamp = Long.MIN_VALUE;
+        try {
+            segment = open(SEGMENT_SUFFIX);
+            index = open(INDEX_SUFFIX);
+            names = open(NAMES_SUFFIX);
+        } catch (IOException e) {
+            closeSegment();
+            throw e;
+        }
+    }
+
+    private boolean rollQuietly() {
+        try {
+            roll();
+            return true;
+        } catch (IOException e) {
+            //retried by the next event
+            return false;
+        }
+    }
+
+    private FileChannel open(String suffix) throws IOException {
+        return FileChannel.open(directory.resolve(fileName(name, sequence, suffix)), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+    }
+
+    private void closeSegment() {
+        for (FileChannel channel : new FileChannel[]{segment, index, names}) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    //nothing left to do
+                }
+            }
+        }
+        segment = null;
+        index = null;
+        names = null;
+    }
+
+    static String fileName(String name, int sequence, String suffix) {
+        return String.format("%s-%06d%s", name, sequence, suffix);
+    }
+
+    /**
+     * list the segments of a sink, in sequence order. Only {@code <name>-<digits>.seg} matches, not the segments of
+     * another sink whose name starts with {@code <name>-}
+     *
+     * @param directory the directory of the segments
+     * @param name      the base name of the segment files
+     * @return the segments
+     * @throws IOException if fails to list the directory
+     */
+    static List<Path> segments(Path directory, String name) throws IOException {
+        Pattern pattern = segmentPattern(name);
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                path -> pattern.matcher(path.getFileName().toString()).matches())) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(Comparator.comparingInt(segment -> sequence(name, segment)));
+        return segments;
+    }
+
+    private static int sequence(String name, Path segment) {
+        Matcher matcher = segmentPattern(name).matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("not a segment of " + name + ": " + segment);
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static Pattern segmentPattern(String name) {
+        return Pattern.compile(Pattern.quote(name) + "-(\\d{6,9})" + Pattern.quote(SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+/**
+ * The class SinkLogger
+ *
+ * @author ytbean
+ * @date 2026/10/19 09:58
+ */
+final class SinkLogger extends AbstractEventLogger {
+
+    private final SinkLoggerFactory factory;
+
+    SinkLogger(String name, SinkLoggerFactory factory) {
+        super(name);
+        this.factory = factory;
+    }
+
+    @Override
+    public boolean isEnabled(AdaptiveLogLevel level) {
+        return level.compareTo(factory.level()) >= 0;
+    }
+
+    @Override
+    protected void emit(AdaptiveLogEvent event) {
+        factory.sink().accept(event);
+    }
+
+    @Override
+    protected AdaptiveLogSink batchSink() {
+        return factory.sink();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+/**
+ * The class SinkLoggerFactory, creates loggers writing {@link AdaptiveLogEvent}s to an {@link AdaptiveLogSink}
+ * instead of going through SLF4J
+ *
+ * @author ytbean
+ * @date 2026/10/19 10:03
+ */
+public class SinkLoggerFactory extends AdaptiveLoggerFactory {
+
+    private final AdaptiveLogSink sink;
+
+    private volatile AdaptiveLogLevel level;
+
+    public SinkLoggerFactory(AdaptiveLogSink sink, AdaptiveLogLevel level) {
+        if (sink == null) {
+            throw new NullPointerException("sink");
+        }
+        if (level == null) {
+            throw new NullPointerException("level");
+        }
+        this.sink = sink;
+        this.level = level;
+    }
+
+    public AdaptiveLogSink sink() {
+        return sink;
+    }
+
+    /**
+     * get the minimum enabled level of the loggers created by this factory
+     *
+     * @return the level
+     */
+    public AdaptiveLogLevel level() {
+        return level;
+    }
+
+    /**
+     * change the minimum enabled level, applies to the loggers already created as well
+     *
+     * @param level the level
+     */
+    public void level(AdaptiveLogLevel level) {
+        if (level == null) {
+            throw new NullPointerException("level");
+        }
+        this.level = level;
+    }
+
+    @Override
+    protected AdaptiveLogger newInstance(String name) {
+        return new SinkLogger(name, this);
+    }
+}
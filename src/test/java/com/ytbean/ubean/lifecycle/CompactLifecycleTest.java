@@ -0,0 +1,176 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class CompactLifecycleTest
+ *
+ * @author ytbean
+ * @date 2026/10/19 20:30
+ */
+@DisplayName("Compact lifecycle Tests")
+public class CompactLifecycleTest {
+
+    private CompactLifecycle lifecycle;
+
+    private CountDownLatch starting;
+
+    private CountDownLatch release;
+
+    @BeforeEach
+    void activeLifecycle() {
+        starting = new CountDownLatch(1);
+        release = new CountDownLatch(0);
+        lifecycle = new CompactLifecycle() {
+            @Override
+            protected void init0() {
+                //nothing to init
+            }
+
+            @Override
+            protected void start0() throws LifecycleException {
+                starting.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw LifecycleException.wrap(e);
+                }
+            }
+
+            @Override
+            protected void suspend0() {
+                //nothing to suspend
+            }
+
+            @Override
+            protected void resume0() {
+                //nothing to resume
+            }
+
+            @Override
+            protected void destroy0() {
+                //nothing to destroy
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("a compact lifecycle goes through the same states")
+    void sameStateMachine() throws LifecycleException {
+        Assertions.assertEquals(LifeState.NEW, lifecycle.state());
+        Assertions.assertThrows(LifecycleException.class, lifecycle::suspend);
+        lifecycle.start();
+        Assertions.assertEquals(LifeState.STARTED, lifecycle.state());
+        lifecycle.suspend();
+        Assertions.assertEquals(LifeState.SUSPENDED, lifecycle.state());
+        lifecycle.resume();
+        lifecycle.destroy();
+        Assertions.assertEquals(LifeState.DESTROYED, lifecycle.state());
+        lifecycle.init();
+        Assertions.assertEquals(LifeState.INITIALIZED, lifecycle.state());
+    }
+
+    @Test
+    @DisplayName("listeners added to a compact lifecycle are notified once per change")
+    void listenersAreNotified() throws LifecycleException {
+        List<String> changes = new ArrayList<>();
+        LifeStateListener listener = (oldState, newState) -> changes.add(oldState + "->" + newState);
+        lifecycle.addLifeStateListener(listener);
+        lifecycle.addLifeStateListener(listener);
+        List<LifeState> settled = new ArrayList<>();
+        lifecycle.addLifeStateListener((oldState, newState) -> settled.add(newState),
+                EnumSet.allOf(LifeState.class), EnumSet.of(LifeState.STARTED));
+
+        lifecycle.start();
+        Assertions.assertEquals(Arrays.asList("NEW->INITIALIZING", "INITIALIZING->INITIALIZED",
+                "INITIALIZED->STARTING", "STARTING->STARTED"), changes);
+        Assertions.assertEquals(Arrays.asList(LifeState.STARTED), settled);
+    }
+
+    @Test
+    @DisplayName("an operation invoked during a transition of another thread fails instead of waiting")
+    void contenderFails() throws Exception {
+        release = new CountDownLatch(1);
+        CompletableFuture<LifeState> started = lifecycle.onState(LifeState.STARTED);
+        Thread starter = new Thread(() -> {
+            try {
+                lifecycle.start();
+            } catch (LifecycleException e) {
+                Assertions.fail(e);
+            }
+        });
+        starter.start();
+        Assertions.assertTrue(starting.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(LifeState.STARTING, lifecycle.state());
+        Assertions.assertThrows(LifecycleException.class, lifecycle::start);
+        Assertions.assertThrows(LifecycleException.class, lifecycle::destroy);
+        Assertions.assertFalse(lifecycle.awaitState(LifeState.STARTED, 10, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        Assertions.assertEquals(LifeState.STARTED, started.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(lifecycle.awaitState(LifeState.STARTED, 0, TimeUnit.MILLISECONDS));
+        starter.join();
+    }
+
+    @Test
+    @DisplayName("the thread running a transition may destroy the component")
+    void ownerMayDestroy() throws Exception {
+        CompactLifecycle selfDestroying = new CompactLifecycle() {
+            @Override
+            protected void init0() {
+                //nothing to init
+            }
+
+            @Override
+            protected void start0() throws LifecycleException {
+                destroy();
+            }
+
+            @Override
+            protected void suspend0() {
+                //nothing to suspend
+            }
+
+            @Override
+            protected void resume0() {
+                //nothing to resume
+            }
+
+            @Override
+            protected void destroy0() {
+                //nothing to destroy
+            }
+        };
+
+        selfDestroying.start();
+
+        Assertions.assertEquals(LifeState.DESTROYED, selfDestroying.state());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class IdleTrackerTest
+ *
+ * @author ytbean
+ * @date 2026/10/20 00:00
+ */
+@DisplayName("Idle tracker Tests")
+public class IdleTrackerTest {
+
+    @Test
+    @DisplayName("an idle component is suspended and resumed by the next call")
+    void suspendsWhenIdleAndResumesOnUse() throws Exception {
+        AtomicInteger suspensions = new AtomicInteger();
+        AtomicInteger resumptions = new AtomicInteger();
+        LifecycleAdapter component = new LifecycleAdapter() {
+            @Override
+            protected void suspend0() {
+                suspensions.incrementAndGet();
+            }
+
+            @Override
+            protected void resume0() {
+                resumptions.incrementAndGet();
+            }
+        };
+        component.start();
+
+        try (IdleTracker tracker = new IdleTracker(component, 50, TimeUnit.MILLISECONDS)) {
+            Assertions.assertTrue(component.awaitState(LifeState.SUSPENDED, 5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, suspensions.get());
+
+            Assertions.assertTrue(tracker.enter());
+            Assertions.assertEquals(LifeState.STARTED, component.state());
+            Assertions.assertEquals(1, resumptions.get());
+
+            //never suspended while a call is in flight
+            Thread.sleep(200);
+            Assertions.assertEquals(LifeState.STARTED, component.state());
+            tracker.exit();
+
+            Assertions.assertTrue(component.awaitState(LifeState.SUSPENDED, 5, TimeUnit.SECONDS));
+            Assertions.assertEquals(2, suspensions.get());
+        }
+
+        component.destroy();
+        IdleTracker destroyed = new IdleTracker(component, 50, TimeUnit.MILLISECONDS);
+        Assertions.assertFalse(destroyed.enter());
+        destroyed.close();
+    }
+
+    @Test
+    @DisplayName("a component being destroyed is not entered")
+    void destroyingIsNotEntered() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        LifecycleAdapter component = new LifecycleAdapter() {
+            @Override
+            protected void destroy0() throws LifecycleException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw LifecycleException.wrap(e);
+                }
+            }
+        };
+        component.start();
+
+        ExecutorService destroyer = Executors.newSingleThreadExecutor();
+        try (IdleTracker tracker = new IdleTracker(component, 1, TimeUnit.MINUTES)) {
+            CompletableFuture<LifeState> destroyed = component.destroyAsync(destroyer);
+            Assertions.assertTrue(component.awaitState(LifeState.DESTROYING, 5, TimeUnit.SECONDS));
+            //ends the destroy later on, in case enter waits for it
+            new Thread(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                release.countDown();
+            }).start();
+
+            Assertions.assertFalse(tracker.enter());
+            Assertions.assertEquals(LifeState.DESTROYED, destroyed.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            destroyer.shutdown();
+        }
+    }
+}
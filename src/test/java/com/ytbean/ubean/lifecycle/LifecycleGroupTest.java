@@ -0,0 +1,226 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class LifecycleGroupTest
+ *
+ * @author ytbean
+ * @date 2026/10/19 18:20
+ */
+@DisplayName("Lifecycle group Tests")
+public class LifecycleGroupTest {
+
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    private LifecycleAdapter component(String name) {
+        return new LifecycleAdapter() {
+            @Override
+            protected void start0() {
+                events.add("start " + name);
+            }
+
+            @Override
+            protected void destroy0() {
+                events.add("destroy " + name);
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("components start after their dependencies and are destroyed before them")
+    void dependencyOrder() throws LifecycleException {
+        LifecycleAdapter config = component("config");
+        LifecycleAdapter database = component("database");
+        LifecycleAdapter web = component("web");
+        LifecycleGroup group = new LifecycleGroup()
+                .add(web, database, config)
+                .add(database, config);
+
+        group.start();
+        Assertions.assertEquals(LifeState.STARTED, group.state());
+        Assertions.assertEquals(LifeState.STARTED, web.state());
+        Assertions.assertTrue(events.indexOf("start config") < events.indexOf("start database"));
+        Assertions.assertTrue(events.indexOf("start database") < events.indexOf("start web"));
+
+        events.clear();
+        group.destroy();
+        Assertions.assertEquals(LifeState.DESTROYED, config.state());
+        Assertions.assertEquals(Arrays.asList("destroy web", "destroy database", "destroy config"),
+                events);
+    }
+
+    @Test
+    @DisplayName("independent components start in parallel")
+    void independentComponentsStartInParallel() throws LifecycleException {
+        int width = 4;
+        CyclicBarrier barrier = new CyclicBarrier(width);
+        ExecutorService executor = Executors.newFixedThreadPool(width);
+        try {
+            LifecycleGroup group = new LifecycleGroup(executor);
+            LifecycleAdapter root = component("root");
+            for (int i = 0; i < width; i++) {
+                group.add(new LifecycleAdapter() {
+                    @Override
+                    protected void start0() throws LifecycleException {
+                        try {
+                            //only passes if every sibling is starting at the same time
+                            barrier.await(5, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw LifecycleException.wrap(e);
+                        }
+                    }
+                }, root);
+            }
+            group.start();
+            Assertions.assertEquals(LifeState.STARTED, group.state());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("a failed start destroys the started components and skips the dependents")
+    void failedStartRollsBack() {
+        LifecycleAdapter config = component("config");
+        LifecycleAdapter broken = new LifecycleAdapter() {
+            @Override
+            protected void start0() throws LifecycleException {
+                throw new LifecycleException("intendly sick");
+            }
+        };
+        LifecycleAdapter web = component("web");
+        LifecycleGroup group = new LifecycleGroup()
+                .add(broken, config)
+                .add(web, broken);
+
+        LifecycleException e = Assertions.assertThrows(LifecycleException.class, group::start);
+        Assertions.assertEquals("intendly sick", e.getCause().getMessage());
+        Assertions.assertEquals(LifeState.SICK, group.state());
+        Assertions.assertEquals(LifeState.DESTROYED, config.state());
+        Assertions.assertEquals(LifeState.DESTROYED, broken.state());
+        Assertions.assertEquals(LifeState.NEW, web.state());
+        Assertions.assertFalse(events.contains("start web"));
+
+        //the rolled back and never initialized components are left alone
+        Assertions.assertDoesNotThrow(group::destroy);
+        Assertions.assertTrue(group.lastShutdown().isClean());
+        Assertions.assertEquals(1, Collections.frequency(events, "destroy config"));
+        Assertions.assertFalse(events.contains("destroy web"));
+        Assertions.assertEquals(LifeState.NEW, web.state());
+    }
+
+    @Test
+    @DisplayName("a dependency cycle is rejected")
+    void cycleIsRejected() {
+        LifecycleAdapter a = component("a");
+        LifecycleAdapter b = component("b");
+        LifecycleGroup group = new LifecycleGroup()
+                .add(a, b)
+                .add(b, a);
+
+        Assertions.assertThrows(LifecycleException.class, group::components);
+        Assertions.assertThrows(LifecycleException.class, group::start);
+        Assertions.assertEquals(LifeState.NEW, a.state());
+    }
+
+    @Test
+    @DisplayName("a stuck component is reported and its dependencies are destroyed anyway")
+    void stuckComponentIsSkipped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            LifecycleAdapter config = component("config");
+            LifecycleAdapter stuck = new LifecycleAdapter() {
+                @Override
+                protected void destroy0() throws LifecycleException {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw LifecycleException.wrap(e);
+                    }
+                }
+            };
+            LifecycleAdapter web = component("web");
+            LifecycleGroup group = new LifecycleGroup(executor)
+                    .add(stuck, config)
+                    .add(web, config);
+            group.start();
+
+            ShutdownReport report = group.shutdown(5_000, 100, TimeUnit.MILLISECONDS);
+            Assertions.assertFalse(report.isClean());
+            Assertions.assertEquals(ShutdownReport.Outcome.TIMED_OUT, report.outcome(stuck));
+            Assertions.assertEquals(ShutdownReport.Outcome.DESTROYED, report.outcome(web));
+            Assertions.assertEquals(ShutdownReport.Outcome.DESTROYED, report.outcome(config));
+            Assertions.assertEquals(LifeState.DESTROYED, config.state());
+            Assertions.assertEquals(LifeState.SICK, group.state());
+            Assertions.assertTrue(report.elapsed(TimeUnit.SECONDS) < 5, report.toString());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("the components left once the deadline has passed are skipped")
+    void componentsAreSkippedAfterDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            LifecycleAdapter config = component("config");
+            LifecycleAdapter stuck = new LifecycleAdapter() {
+                @Override
+                protected void destroy0() throws LifecycleException {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw LifecycleException.wrap(e);
+                    }
+                }
+            };
+            LifecycleGroup group = new LifecycleGroup(executor).add(stuck, config);
+            group.start();
+
+            ShutdownReport report = group.shutdown(200, 10_000, TimeUnit.MILLISECONDS);
+            Assertions.assertEquals(ShutdownReport.Outcome.TIMED_OUT, report.outcome(stuck));
+            Assertions.assertEquals(ShutdownReport.Outcome.SKIPPED, report.outcome(config));
+            Assertions.assertEquals(LifeState.STARTED, config.state());
+            Assertions.assertSame(report, group.lastShutdown());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
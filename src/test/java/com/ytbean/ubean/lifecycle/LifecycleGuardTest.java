@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class LifecycleGuardTest
+ *
+ * @author ytbean
+ * @date 2026/10/19 22:00
+ */
+@DisplayName("Lifecycle guard Tests")
+public class LifecycleGuardTest {
+
+    @Test
+    @DisplayName("the guard only admits calls while started")
+    void admitsOnlyWhileStarted() throws LifecycleException {
+        LifecycleAdapter lifecycle = new LifecycleAdapter();
+        LifecycleGuard guard = lifecycle.guard();
+        Assertions.assertSame(guard, lifecycle.guard());
+        Assertions.assertFalse(guard.tryEnter());
+
+        lifecycle.start();
+        Assertions.assertTrue(guard.tryEnter());
+        Assertions.assertEquals(1, guard.inFlight());
+        guard.exit();
+        lifecycle.suspend();
+        Assertions.assertFalse(guard.tryEnter());
+        lifecycle.resume();
+        Assertions.assertTrue(guard.tryEnter());
+        guard.exit();
+        Assertions.assertEquals(0, guard.inFlight());
+    }
+
+    @Test
+    @DisplayName("suspend waits for the calls in flight before releasing the resources")
+    void suspendDrainsCallsInFlight() throws Exception {
+        AtomicBoolean released = new AtomicBoolean();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        LifecycleAdapter lifecycle = new LifecycleAdapter() {
+            @Override
+            protected void suspend0() {
+                released.set(true);
+            }
+        };
+        lifecycle.start();
+        LifecycleGuard guard = lifecycle.guard();
+        CountDownLatch running = new CountDownLatch(4);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            pool.execute(() -> {
+                boolean first = true;
+                while (guard.tryEnter()) {
+                    try {
+                        if (first) {
+                            running.countDown();
+                            first = false;
+                        }
+                        Thread.sleep(1);
+                        if (released.get()) {
+                            errors.incrementAndGet();
+                        }
+                        completed.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } finally {
+                        guard.exit();
+                    }
+                }
+            });
+        }
+        Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        lifecycle.suspend();
+        Assertions.assertEquals(0, guard.inFlight());
+        Assertions.assertEquals(0, errors.get());
+        Assertions.assertTrue(completed.get() > 0);
+        pool.shutdown();
+        Assertions.assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("a drain gives up at the deadline")
+    void drainTimesOut() throws LifecycleException {
+        LifecycleAdapter lifecycle = new LifecycleAdapter();
+        lifecycle.setDrainTimeout(50, TimeUnit.MILLISECONDS);
+        lifecycle.start();
+        Assertions.assertTrue(lifecycle.guard().tryEnter());
+
+        long started = System.nanoTime();
+        lifecycle.destroy();
+        Assertions.assertEquals(LifeState.DESTROYED, lifecycle.state());
+        Assertions.assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assertions.assertEquals(1, lifecycle.guard().inFlight());
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class LifecyclePoolTest
+ *
+ * @author ytbean
+ * @date 2026/10/19 23:30
+ */
+@DisplayName("Lifecycle pool Tests")
+public class LifecyclePoolTest {
+
+    private final AtomicInteger initialized = new AtomicInteger();
+
+    private LifecycleAdapter slowInit() {
+        return new LifecycleAdapter() {
+            @Override
+            protected void init0() throws LifecycleException {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    throw LifecycleException.wrap(e);
+                }
+                initialized.incrementAndGet();
+            }
+        };
+    }
+
+    private static void awaitIdle(LifecyclePool<?> pool, int idle) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pool.idle() < idle && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("acquired components come initialized from the standby and are replaced in the background")
+    void acquireFromStandby() throws Exception {
+        LifecyclePool<LifecycleAdapter> pool = new LifecyclePool<>(this::slowInit, 2, 8);
+        Assertions.assertThrows(LifecycleException.class, pool::acquire);
+        pool.start();
+        Assertions.assertEquals(2, pool.idle());
+        Assertions.assertEquals(2, initialized.get());
+
+        long started = System.nanoTime();
+        LifecycleAdapter component = pool.acquire();
+        Assertions.assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(20));
+        Assertions.assertEquals(LifeState.STARTED, component.state());
+        Assertions.assertEquals(0, pool.misses());
+
+        awaitIdle(pool, 2);
+        Assertions.assertEquals(2, pool.idle());
+        Assertions.assertEquals(3, initialized.get());
+
+        pool.destroy();
+        Assertions.assertEquals(0, pool.idle());
+        Assertions.assertEquals(LifeState.STARTED, component.state());
+    }
+
+    @Test
+    @DisplayName("the standby follows the acquisition rate, within its bounds")
+    void standbyFollowsAcquisitionRate() throws Exception {
+        LifecyclePool<LifecycleAdapter> pool = new LifecyclePool<>(this::slowInit, 1, 4);
+        pool.start();
+        Assertions.assertEquals(1, pool.target());
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            clients.execute(() -> {
+                for (int j = 0; j < 50; j++) {
+                    try {
+                        pool.acquire();
+                    } catch (LifecycleException e) {
+                        Assertions.fail(e);
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        Assertions.assertTrue(clients.awaitTermination(30, TimeUnit.SECONDS));
+        Assertions.assertEquals(400, pool.acquisitions());
+        Assertions.assertEquals(4, pool.target());
+        awaitIdle(pool, 4);
+        Assertions.assertEquals(4, pool.idle());
+
+        //once the burst is over, the standby shrinks back
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pool.idle() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(1, pool.idle());
+        pool.destroy();
+    }
+
+    @Test
+    @DisplayName("destroy waits for the components initializing in the background and destroys them")
+    void destroyDrainsBackgroundInitializations() throws Exception {
+        CountDownLatch initializing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<LifecycleAdapter> created = new CopyOnWriteArrayList<>();
+        LifecyclePool<LifecycleAdapter> pool = new LifecyclePool<>(() -> {
+            boolean standby = !created.isEmpty();
+            LifecycleAdapter component = new LifecycleAdapter() {
+                @Override
+                protected void init0() throws LifecycleException {
+                    if (standby) {
+                        initializing.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            throw LifecycleException.wrap(e);
+                        }
+                    }
+                }
+            };
+            created.add(component);
+            return component;
+        }, 1, 4);
+        pool.start();
+        pool.acquire();
+        Assertions.assertTrue(initializing.await(5, TimeUnit.SECONDS));
+
+        ExecutorService destroyer = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<LifeState> destroyed = pool.destroyAsync(destroyer);
+            Thread.sleep(50);
+            Assertions.assertFalse(destroyed.isDone());
+
+            release.countDown();
+            Assertions.assertEquals(LifeState.DESTROYED, destroyed.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(0, pool.idle());
+            Assertions.assertEquals(LifeState.DESTROYED, created.get(1).state());
+        } finally {
+            destroyer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("a failed start destroys the components initialized next to the failed one")
+    void failedStartDestroysCreated() {
+        List<LifecycleAdapter> created = new CopyOnWriteArrayList<>();
+        LifecyclePool<LifecycleAdapter> pool = new LifecyclePool<>(() -> {
+            boolean failing = created.isEmpty();
+            LifecycleAdapter component = new LifecycleAdapter() {
+                @Override
+                protected void init0() throws LifecycleException {
+                    if (failing) {
+                        throw new LifecycleException("init failed");
+                    }
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        throw LifecycleException.wrap(e);
+                    }
+                }
+            };
+            created.add(component);
+            return component;
+        }, 3, 4);
+        Assertions.assertThrows(LifecycleException.class, pool::start);
+
+        Assertions.assertEquals(3, created.size());
+        Assertions.assertEquals(0, pool.idle());
+        for (LifecycleAdapter component : created.subList(1, 3)) {
+            Assertions.assertEquals(LifeState.DESTROYED, component.state());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The class LifecycleProfilerTest
+ *
+ * @author ytbean
+ * @date 2026/10/19 21:30
+ */
+@DisplayName("Lifecycle profiler Tests")
+public class LifecycleProfilerTest {
+
+    private static LifecycleAdapter component(String name, long startMillis) {
+        return new LifecycleAdapter() {
+            @Override
+            protected void start0() throws LifecycleException {
+                try {
+                    Thread.sleep(startMillis);
+                } catch (InterruptedException e) {
+                    throw LifecycleException.wrap(e);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("the profiler records every phase and finds the critical path of a group")
+    void criticalPathOfGroup(@TempDir Path dir) throws Exception {
+        LifecycleAdapter config = component("config", 40);
+        LifecycleAdapter cache = component("cache", 5);
+        LifecycleAdapter database = component("database", 30);
+        LifecycleAdapter web = component("web", 10);
+        LifecycleGroup group = new LifecycleGroup() {
+            @Override
+            public String toString() {
+                return "application";
+            }
+        }.add(database, config).add(web, database, cache);
+
+        LifecycleProfiler profiler = LifecycleProfiler.install();
+        try {
+            group.start();
+            group.destroy();
+        } finally {
+            profiler.uninstall();
+        }
+        Assertions.assertNull(LifecycleProfiler.installed());
+
+        List<String> path = profiler.criticalPath(LifeState.STARTING).stream()
+                .map(span -> span.component().toString()).collect(Collectors.toList());
+        Assertions.assertEquals(Arrays.asList("config", "database", "web", "application"), path);
+        Assertions.assertEquals(5, profiler.spans().stream().filter(span -> span.phase() == LifeState.STARTING)
+                .count());
+        Assertions.assertEquals(5, profiler.spans().stream().filter(span -> span.phase() == LifeState.DESTROYING)
+                .count());
+        Assertions.assertTrue(profiler.summary().contains("critical path of STARTING"), profiler.summary());
+
+        Path trace = dir.resolve("boot.json");
+        profiler.writeChromeTrace(trace);
+        String json = new String(Files.readAllBytes(trace), StandardCharsets.UTF_8);
+        Assertions.assertTrue(json.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["), json);
+        Assertions.assertEquals(15, json.split("\"ph\":\"X\"", -1).length - 1, json);
+        Assertions.assertTrue(json.contains("\"name\":\"thread_name\""), json);
+    }
+}
@@ -20,6 +20,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -207,4 +219,313 @@ public class LifecycleTest {
 
         Assertions.assertEquals(4, firedCounter.get());
     }
+
+    @Test
+    @DisplayName("state can be read without blocking while a transition is running")
+    void stateIsReadableDuringTransition() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LifecycleAdapter slow = new LifecycleAdapter() {
+            @Override
+            protected void start0() throws LifecycleException {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new LifecycleException(e);
+                }
+            }
+        };
+        Thread starter = new Thread(() -> {
+            try {
+                slow.start();
+            } catch (LifecycleException e) {
+                Assertions.fail("unexpected, should not happen", e);
+            }
+        });
+        starter.start();
+        Assertions.assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(LifeState.STARTING, slow.state());
+
+        release.countDown();
+        starter.join();
+        Assertions.assertEquals(LifeState.STARTED, slow.state());
+    }
+
+    @Test
+    @DisplayName("concurrent starts run start0 exactly once and the others fail")
+    void concurrentStartsRunOnce() throws Exception {
+        final AtomicInteger started = new AtomicInteger();
+        LifecycleAdapter counted = new LifecycleAdapter() {
+            @Override
+            protected void start0() {
+                started.incrementAndGet();
+            }
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        CountDownLatch go = new CountDownLatch(1);
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> {
+                go.await();
+                try {
+                    counted.start();
+                    return true;
+                } catch (LifecycleException e) {
+                    return false;
+                }
+            }));
+        }
+        go.countDown();
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            succeeded += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        Assertions.assertEquals(1, succeeded);
+        Assertions.assertEquals(1, started.get());
+        Assertions.assertEquals(LifeState.STARTED, counted.state());
+    }
+
+    @Test
+    @DisplayName("async operations run on the given executor and complete with the state reached")
+    void asyncOperationsRunOnExecutor() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor(task -> new Thread(task, "lifecycle-async"));
+        final List<String> threads = new ArrayList<>();
+        LifecycleAdapter async = new LifecycleAdapter() {
+            @Override
+            protected void start0() {
+                threads.add(Thread.currentThread().getName());
+            }
+        };
+        async.setAsyncExecutor(pool);
+        try {
+            Assertions.assertEquals(LifeState.STARTED, async.startAsync().get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(LifeState.DESTROYED, async.destroyAsync(pool).get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertEquals("lifecycle-async", threads.get(0));
+    }
+
+    @Test
+    @DisplayName("an async operation completes with the state it reached, not the one read afterwards")
+    void asyncOperationCompletesWithReachedState() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        //changes the state right after the start, before the task could read it
+        lifecycle.addLifeStateListener((oldState, newState) -> {
+            try {
+                lifecycle.suspend();
+            } catch (LifecycleException e) {
+                Assertions.fail(e);
+            }
+        }, LifeState.STARTING, LifeState.STARTED);
+        try {
+            Assertions.assertEquals(LifeState.STARTED, lifecycle.startAsync(pool).get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(LifeState.SUSPENDED, lifecycle.state());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("an async operation which fails completes exceptionally with a LifecycleException")
+    void failedAsyncOperationCompletesExceptionally() {
+        LifecycleAdapter sick = new LifecycleAdapter() {
+            @Override
+            protected void start0() throws LifecycleException {
+                throw new LifecycleException("intendly sick");
+            }
+        };
+        CompletableFuture<LifeState> future = sick.startAsync();
+        CompletionException e = Assertions.assertThrows(CompletionException.class, future::join);
+        Assertions.assertTrue(e.getCause() instanceof LifecycleException);
+        Assertions.assertEquals(LifeState.SICK, sick.state());
+    }
+
+    @Test
+    @DisplayName("awaitState returns as soon as the state is reached and false on timeout")
+    void awaitStateWakesOnTransition() throws Exception {
+        Assertions.assertFalse(lifecycle.awaitState(LifeState.STARTED, 10, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(lifecycle.awaitState(LifeState.NEW, 0, TimeUnit.MILLISECONDS));
+
+        CountDownLatch starting = new CountDownLatch(1);
+        Thread starter = new Thread(() -> {
+            try {
+                starting.await();
+                lifecycle.start();
+            } catch (Exception e) {
+                Assertions.fail(e);
+            }
+        });
+        starter.start();
+        starting.countDown();
+        Assertions.assertTrue(lifecycle.awaitState(LifeState.STARTED, 5, TimeUnit.SECONDS));
+        Assertions.assertEquals(LifeState.STARTED, lifecycle.state());
+        starter.join();
+    }
+
+    @Test
+    @DisplayName("onState completes when the state is entered, even a transient one")
+    void onStateCompletesOnTransition() throws Exception {
+        CompletableFuture<LifeState> started = lifecycle.onState(LifeState.STARTED);
+        CompletableFuture<LifeState> suspending = lifecycle.onState(LifeState.SUSPENDING);
+        lifecycle.onState(LifeState.STARTED).cancel(false);
+        Assertions.assertFalse(started.isDone());
+
+        lifecycle.start();
+        Assertions.assertEquals(LifeState.STARTED, started.getNow(null));
+        Assertions.assertTrue(lifecycle.onState(LifeState.STARTED).isDone());
+
+        lifecycle.suspend();
+        Assertions.assertEquals(LifeState.SUSPENDING, suspending.getNow(null));
+        Assertions.assertFalse(lifecycle.onState(LifeState.STARTED).isDone());
+    }
+
+    @Test
+    @DisplayName("an implementation of its own gets awaitState and onState through its listeners")
+    void defaultAwaitState() throws Exception {
+        List<LifeStateListener> listeners = new ArrayList<>();
+        LifeState[] current = {LifeState.NEW};
+        Lifecycle plain = new Lifecycle() {
+            private void move(LifeState next) {
+                LifeState previous = current[0];
+                current[0] = next;
+                for (LifeStateListener listener : listeners) {
+                    listener.onStateChanged(previous, next);
+                }
+            }
+
+            @Override
+            public void init() {
+                move(LifeState.INITIALIZED);
+            }
+
+            @Override
+            public void start() {
+                move(LifeState.STARTED);
+            }
+
+            @Override
+            public void suspend() {
+                move(LifeState.SUSPENDED);
+            }
+
+            @Override
+            public void resume() {
+                move(LifeState.STARTED);
+            }
+
+            @Override
+            public void destroy() {
+                move(LifeState.DESTROYED);
+            }
+
+            @Override
+            public void addLifeStateListener(LifeStateListener listener) {
+                listeners.add(listener);
+            }
+
+            @Override
+            public LifeState state() {
+                return current[0];
+            }
+        };
+
+        Assertions.assertTrue(plain.awaitState(LifeState.NEW, 0, TimeUnit.MILLISECONDS));
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertFalse(plain.awaitState(LifeState.STARTED, 1, TimeUnit.MILLISECONDS));
+        }
+        CompletableFuture<LifeState> started = plain.onState(LifeState.STARTED);
+        plain.start();
+        Assertions.assertEquals(LifeState.STARTED, started.getNow(null));
+        Assertions.assertTrue(plain.awaitState(LifeState.STARTED, 0, TimeUnit.MILLISECONDS));
+        //a single listener serves every waiter
+        Assertions.assertEquals(1, listeners.size());
+    }
+
+    @Test
+    @DisplayName("with a listener executor, transitions don't wait on listeners and delivery stays ordered")
+    void listenerExecutorDecouplesTransitions() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch release = new CountDownLatch(1);
+        List<LifeState> delivered = Collections.synchronizedList(new ArrayList<>());
+        lifecycle.setListenerExecutor(pool);
+        lifecycle.addLifeStateListener((oldState, newState) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.add(newState);
+        });
+
+        lifecycle.start();
+        lifecycle.suspend();
+        lifecycle.resume();
+        Assertions.assertEquals(LifeState.STARTED, lifecycle.state());
+        Assertions.assertTrue(delivered.isEmpty());
+
+        release.countDown();
+        pool.shutdown();
+        Assertions.assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Arrays.asList(LifeState.INITIALIZING, LifeState.INITIALIZED, LifeState.STARTING,
+                LifeState.STARTED, LifeState.SUSPENDING, LifeState.SUSPENDED, LifeState.RESUMING, LifeState.STARTED),
+                delivered);
+    }
+
+    @Test
+    @DisplayName("listener notifications are timed and failures are counted")
+    void listenerStatsReportSlowAndFailingListeners() throws Exception {
+        LifeStateListener slow = (oldState, newState) -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        LifeStateListener failing = (oldState, newState) -> {
+            throw new IllegalStateException("intendly failing");
+        };
+        lifecycle.setSlowListenerThreshold(1, TimeUnit.MILLISECONDS);
+        lifecycle.addLifeStateListener(failing);
+        lifecycle.addLifeStateListener(slow);
+
+        lifecycle.init();
+        Assertions.assertEquals(LifeState.INITIALIZED, lifecycle.state());
+
+        List<ListenerStats> stats = lifecycle.listenerStats();
+        Assertions.assertEquals(2, stats.size());
+        Assertions.assertSame(slow, stats.get(0).listener());
+        Assertions.assertEquals(2, stats.get(0).invocations());
+        Assertions.assertEquals(2, stats.get(0).slowInvocations());
+        Assertions.assertTrue(stats.get(0).maxTime(TimeUnit.MILLISECONDS) >= 5);
+        Assertions.assertEquals(2, stats.get(1).failures());
+    }
+
+    @Test
+    @DisplayName("filtered listeners are only notified of the states and transitions they subscribed to")
+    void filteredListenersOnlySeeTheirTransitions() throws Exception {
+        List<String> sick = new ArrayList<>();
+        List<String> resumed = new ArrayList<>();
+        List<String> settled = new ArrayList<>();
+        lifecycle.addLifeStateListener((oldState, newState) -> sick.add(oldState + "->" + newState),
+                EnumSet.of(LifeState.SICK));
+        lifecycle.addLifeStateListener((oldState, newState) -> resumed.add(oldState + "->" + newState),
+                LifeState.RESUMING, LifeState.STARTED);
+        LifeStateListener both = (oldState, newState) -> settled.add(oldState + "->" + newState);
+        lifecycle.addLifeStateListener(both, EnumSet.of(LifeState.STARTED));
+        lifecycle.addLifeStateListener(both, EnumSet.of(LifeState.STARTED, LifeState.SUSPENDED));
+
+        lifecycle.start();
+        lifecycle.suspend();
+        lifecycle.resume();
+
+        Assertions.assertTrue(sick.isEmpty());
+        Assertions.assertEquals(Collections.singletonList("RESUMING->STARTED"), resumed);
+        Assertions.assertEquals(Arrays.asList("STARTING->STARTED", "SUSPENDING->SUSPENDED", "RESUMING->STARTED"),
+                settled);
+    }
 }
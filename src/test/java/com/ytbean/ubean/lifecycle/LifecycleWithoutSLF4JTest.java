@@ -0,0 +1,63 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * The class LifecycleWithoutSLF4JTest, loads the library in isolated class loaders, without the logging framework
+ * the tests otherwise run with
+ *
+ * @author ytbean
+ * @date 2026/10/20 05:00
+ */
+@DisplayName("Lifecycle without SLF4J Tests")
+public class LifecycleWithoutSLF4JTest {
+
+    @Test
+    @DisplayName("a lifecycle works without SLF4J on the class path")
+    void worksWithoutSLF4J() throws Exception {
+        runLifecycle(location(AbstractLifecycle.class));
+    }
+
+    @Test
+    @DisplayName("a lifecycle works with SLF4J but no binding")
+    void worksWithoutBinding() throws Exception {
+        runLifecycle(location(AbstractLifecycle.class), location(LoggerFactory.class));
+    }
+
+    private static void runLifecycle(URL... classPath) throws Exception {
+        try (URLClassLoader loader = new URLClassLoader(classPath, ClassLoader.getSystemClassLoader().getParent())) {
+            Class<?> adapter = Class.forName(LifecycleAdapter.class.getName(), true, loader);
+            Assertions.assertNotSame(LifecycleAdapter.class, adapter);
+            Object lifecycle = adapter.getConstructor().newInstance();
+            for (String operation : new String[]{"init", "start", "suspend", "resume", "destroy"}) {
+                adapter.getMethod(operation).invoke(lifecycle);
+            }
+            Assertions.assertEquals("DESTROYED", adapter.getMethod("state").invoke(lifecycle).toString());
+        }
+    }
+
+    private static URL location(Class<?> type) {
+        return type.getProtectionDomain().getCodeSource().getLocation();
+    }
+}
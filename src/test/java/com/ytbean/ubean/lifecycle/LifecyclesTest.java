@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class LifecyclesTest
+ *
+ * @author ytbean
+ * @date 2026/10/19 21:00
+ */
+@DisplayName("Bulk lifecycle operations Tests")
+public class LifecyclesTest {
+
+    private static final int POPULATION = 10_000;
+
+    private List<Lifecycle> startedPopulation() throws LifecycleException {
+        List<Lifecycle> components = new ArrayList<>(POPULATION);
+        for (int i = 0; i < POPULATION; i++) {
+            final int index = i;
+            LifecycleAdapter component = new LifecycleAdapter() {
+                @Override
+                protected void suspend0() throws LifecycleException {
+                    if (index % 1000 == 0) {
+                        throw new LifecycleException("intendly sick");
+                    }
+                }
+
+                @Override
+                public String toString() {
+                    return "session-" + index;
+                }
+            };
+            component.start();
+            components.add(component);
+        }
+        return components;
+    }
+
+    @Test
+    @DisplayName("suspendAll suspends the started components and collects the failures")
+    void suspendAll() throws LifecycleException {
+        List<Lifecycle> components = startedPopulation();
+        components.get(1).suspend();
+
+        BulkResult result = Lifecycles.suspendAll(components);
+        Assertions.assertEquals(POPULATION - 11, result.succeeded());
+        Assertions.assertEquals(1, result.skipped());
+        Assertions.assertEquals(10, result.failures().size());
+        Assertions.assertTrue(result.failures().containsKey(components.get(5000)));
+
+        Map<LifeState, Integer> byState = Lifecycles.countByState(components);
+        Assertions.assertEquals(POPULATION - 10, byState.get(LifeState.SUSPENDED).intValue());
+        Assertions.assertEquals(10, byState.get(LifeState.SICK).intValue());
+        Assertions.assertNull(byState.get(LifeState.STARTED));
+    }
+
+    @Test
+    @DisplayName("destroyAll only destroys the components matching the predicate")
+    void destroyAllWithPredicate() throws LifecycleException {
+        List<Lifecycle> components = startedPopulation();
+
+        BulkResult result = Lifecycles.destroyAll(components, component -> component.toString().endsWith("7"));
+        Assertions.assertTrue(result.isClean());
+        Assertions.assertEquals(POPULATION / 10, result.succeeded());
+        Assertions.assertEquals(POPULATION - POPULATION / 10, result.skipped());
+        Assertions.assertEquals(POPULATION / 10, Lifecycles.countByState(components).get(LifeState.DESTROYED)
+                .intValue());
+        Assertions.assertSame(BulkResult.EMPTY, Lifecycles.destroyAll(new ArrayList<>(), component -> true));
+    }
+
+    @Test
+    @DisplayName("blocked chunks don't starve the pool")
+    void blockedChunksAreCompensated() throws LifecycleException {
+        //one component of each half waits for the other, which needs a second worker
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        List<Lifecycle> components = new ArrayList<>();
+        for (int i = 0; i < 512; i++) {
+            boolean waits = i == 0 || i == 256;
+            LifecycleAdapter component = new LifecycleAdapter() {
+                @Override
+                protected void suspend0() throws LifecycleException {
+                    if (waits) {
+                        try {
+                            barrier.await(5, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw LifecycleException.wrap(e);
+                        }
+                    }
+                }
+            };
+            component.start();
+            components.add(component);
+        }
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            BulkResult result = Lifecycles.suspendAll(components, pool);
+            Assertions.assertTrue(result.isClean(), result.failures().toString());
+            Assertions.assertEquals(512, result.succeeded());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
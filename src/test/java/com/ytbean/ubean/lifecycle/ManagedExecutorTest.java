@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class ManagedExecutorTest
+ *
+ * @author ytbean
+ * @date 2026/10/20 01:00
+ */
+@DisplayName("Managed executor Tests")
+public class ManagedExecutorTest {
+
+    @Test
+    @DisplayName("suspending pauses the dispatch without losing the queued tasks")
+    void suspendKeepsQueuedTasks() throws Exception {
+        ManagedExecutor executor = new ManagedExecutor("paused", 2);
+        AtomicInteger ran = new AtomicInteger();
+        executor.start();
+        executor.suspend();
+
+        CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            executor.execute(() -> {
+                ran.incrementAndGet();
+                done.countDown();
+            });
+        }
+        Thread.sleep(100);
+        Assertions.assertEquals(0, ran.get());
+        Assertions.assertEquals(100, executor.queueDepth());
+
+        executor.resume();
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, executor.queueDepth());
+        executor.destroy();
+        Assertions.assertEquals(100, executor.completedTasks());
+        Assertions.assertTrue(executor.maxQueueLatency(TimeUnit.MILLISECONDS) >= 100);
+    }
+
+    @Test
+    @DisplayName("no more than the given number of tasks run at once")
+    void boundsConcurrency() throws Exception {
+        ManagedExecutor executor = new ManagedExecutor("bounded", 3);
+        executor.start();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(30);
+        for (int i = 0; i < 30; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(3, peak.get());
+        Assertions.assertTrue(executor.averageRunTime(TimeUnit.MILLISECONDS) >= 5);
+        executor.destroy();
+    }
+
+    @Test
+    @DisplayName("destroying drains the queue, a suspended one included")
+    void destroyDrainsQueue() throws Exception {
+        ManagedExecutor executor = new ManagedExecutor("drained", 1);
+        AtomicInteger ran = new AtomicInteger();
+        executor.start();
+        executor.suspend();
+        for (int i = 0; i < 10; i++) {
+            executor.execute(ran::incrementAndGet);
+        }
+
+        executor.destroy();
+
+        Assertions.assertEquals(10, ran.get());
+        Assertions.assertEquals(0, executor.droppedTasks());
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(ran::incrementAndGet));
+    }
+
+    @Test
+    @DisplayName("destroying waits for the task held by the dispatcher")
+    void destroyWaitsForDispatchedTask() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            ManagedExecutor executor = new ManagedExecutor("held", 1);
+            AtomicInteger ran = new AtomicInteger();
+            executor.start();
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> {
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    ran.incrementAndGet();
+                });
+            }
+
+            executor.destroy();
+
+            Assertions.assertEquals(3, ran.get());
+            Assertions.assertEquals(0, executor.droppedTasks());
+        }
+    }
+
+    @Test
+    @DisplayName("destroying drops the queued tasks once the deadline passed")
+    void destroyStopsAtDeadline() throws Exception {
+        ManagedExecutor executor = new ManagedExecutor("deadline", 1);
+        executor.setShutdownTimeout(50, TimeUnit.MILLISECONDS);
+        executor.start();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+            });
+        }
+
+        long started = System.nanoTime();
+        executor.destroy();
+
+        Assertions.assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        Assertions.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(5, executor.droppedTasks());
+        Assertions.assertEquals(LifeState.DESTROYED, executor.state());
+    }
+
+    @Test
+    @DisplayName("virtual threads fall back to platform threads before Java 21")
+    void virtualThreads() throws Exception {
+        ManagedExecutor executor = ManagedExecutor.virtual("virtual", 4);
+        executor.start();
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown);
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.destroy();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class MemoryPressureControllerTest
+ *
+ * @author ytbean
+ * @date 2026/10/20 00:30
+ */
+@DisplayName("Memory pressure controller Tests")
+public class MemoryPressureControllerTest {
+
+    private volatile double pressure;
+
+    private final List<String> suspended = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<String> resumed = Collections.synchronizedList(new ArrayList<>());
+
+    private LifecycleAdapter component(String name) throws LifecycleException {
+        LifecycleAdapter component = new LifecycleAdapter() {
+            @Override
+            protected void suspend0() {
+                suspended.add(name);
+            }
+
+            @Override
+            protected void resume0() {
+                resumed.add(name);
+            }
+        };
+        component.start();
+        return component;
+    }
+
+    @Test
+    @DisplayName("components are suspended by priority under pressure and resumed once it clears")
+    void suspendsByPriorityWithHysteresis() throws Exception {
+        LifecycleAdapter cache = component("cache");
+        LifecycleAdapter index = component("index");
+        LifecycleAdapter sessions = component("sessions");
+        LifecycleAdapter manual = component("manual");
+        MemoryPressureController controller = new MemoryPressureController(0.85, 0.7) {
+            @Override
+            protected double pressure() {
+                return pressure;
+            }
+        }.register(cache, 0).register(index, 0).register(sessions, 10).register(manual, 5);
+        manual.suspend();
+        controller.start();
+
+        pressure = 0.9;
+        controller.reevaluate();
+        Assertions.assertTrue(cache.awaitState(LifeState.SUSPENDED, 5, TimeUnit.SECONDS));
+        Assertions.assertTrue(index.awaitState(LifeState.SUSPENDED, 5, TimeUnit.SECONDS));
+
+        //a collection may trigger an evaluation of its own
+        controller.reevaluate();
+        Assertions.assertTrue(sessions.awaitState(LifeState.SUSPENDED, 5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Arrays.asList("manual", "sessions"), Arrays.asList(suspended.get(0),
+                suspended.get(3)));
+
+        //between the watermarks nothing changes
+        pressure = 0.8;
+        controller.reevaluate();
+        Thread.sleep(100);
+        Assertions.assertEquals(LifeState.SUSPENDED, cache.state());
+        Assertions.assertEquals(LifeState.SUSPENDED, sessions.state());
+
+        pressure = 0.5;
+        controller.reevaluate();
+        Assertions.assertTrue(sessions.awaitState(LifeState.STARTED, 5, TimeUnit.SECONDS));
+        //the next priority waits for a collection
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.state() != LifeState.STARTED && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(cache.awaitState(LifeState.STARTED, 5, TimeUnit.SECONDS));
+        Assertions.assertTrue(index.awaitState(LifeState.STARTED, 5, TimeUnit.SECONDS));
+        Assertions.assertEquals("sessions", resumed.get(0));
+        Assertions.assertTrue(resumed.containsAll(Arrays.asList("cache", "index")));
+        Assertions.assertEquals(LifeState.SUSPENDED, manual.state());
+
+        controller.destroy();
+    }
+
+    @Test
+    @DisplayName("the usage thresholds found when started are restored when destroyed")
+    void restoresThresholds() throws Exception {
+        MemoryPoolMXBean pool = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(candidate -> candidate.getType() == MemoryType.HEAP && candidate.isUsageThresholdSupported()
+                        && candidate.getUsage().getMax() > 0)
+                .findFirst()
+                .orElse(null);
+        Assumptions.assumeTrue(pool != null, "no heap pool with a usage threshold");
+        long previous = pool.getUsageThreshold();
+        pool.setUsageThreshold(1024);
+        try {
+            MemoryPressureController controller = new MemoryPressureController(0.85, 0.7);
+            controller.start();
+            Assertions.assertNotEquals(1024, pool.getUsageThreshold());
+            controller.destroy();
+            Assertions.assertEquals(1024, pool.getUsageThreshold());
+        } finally {
+            pool.setUsageThreshold(previous);
+        }
+    }
+}
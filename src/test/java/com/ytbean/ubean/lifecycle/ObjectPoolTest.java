@@ -0,0 +1,178 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class ObjectPoolTest
+ *
+ * @author ytbean
+ * @date 2026/10/20 03:00
+ */
+@DisplayName("Object pool Tests")
+public class ObjectPoolTest {
+
+    @Test
+    @DisplayName("the pool fills when started, empties when suspended and refills when resumed")
+    void followsLifecycle() throws Exception {
+        List<StringBuilder> disposed = new ArrayList<>();
+        ObjectPool<StringBuilder> pool = new ObjectPool<StringBuilder>(StringBuilder::new, 4, 16)
+                .reset(builder -> builder.setLength(0))
+                .disposer(disposed::add);
+        pool.start();
+        Assertions.assertEquals(4, pool.pooled());
+        Assertions.assertEquals(4, pool.created());
+
+        StringBuilder builder = pool.acquire();
+        builder.append("used");
+        pool.release(builder);
+        Assertions.assertSame(builder, pool.acquire());
+        Assertions.assertEquals(0, builder.length());
+        Assertions.assertEquals(2, pool.hits());
+        Assertions.assertEquals(0, pool.misses());
+        pool.release(builder);
+
+        pool.suspend();
+        Assertions.assertEquals(0, pool.pooled());
+        Assertions.assertEquals(4, disposed.size());
+
+        //not pooled while suspended
+        StringBuilder onDemand = pool.acquire();
+        Assertions.assertEquals(1, pool.misses());
+        pool.release(onDemand);
+        Assertions.assertEquals(0, pool.pooled());
+
+        pool.resume();
+        Assertions.assertEquals(4, pool.pooled());
+
+        pool.destroy();
+        Assertions.assertEquals(0, pool.pooled());
+        Assertions.assertEquals(pool.created(), pool.disposed());
+    }
+
+    @Test
+    @DisplayName("objects beyond the thread cache and the shared stack are disposed of")
+    void boundsPooledObjects() throws Exception {
+        ObjectPool<Object> pool = new ObjectPool<>(Object::new, 0, 4).threadCacheSize(2);
+        pool.start();
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            objects.add(pool.acquire());
+        }
+        objects.forEach(pool::release);
+
+        Assertions.assertEquals(6, pool.pooled());
+        Assertions.assertEquals(4, pool.disposed());
+        pool.destroy();
+    }
+
+    @Test
+    @DisplayName("threads share the released objects through the stack")
+    void sharesAcrossThreads() throws Exception {
+        ObjectPool<byte[]> pool = new ObjectPool<>(() -> new byte[1024], 0, 1024).threadCacheSize(4);
+        pool.start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    byte[] first = pool.acquire();
+                    byte[] second = pool.acquire();
+                    pool.release(first);
+                    pool.release(second);
+                }
+                done.countDown();
+            });
+        }
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        Assertions.assertTrue(pool.created() <= 16, "created " + pool.created());
+        Assertions.assertEquals(pool.created(), pool.pooled());
+        pool.destroy();
+        Assertions.assertEquals(0, pool.pooled());
+    }
+
+    @Test
+    @DisplayName("a restarted pool still tracks the objects cached by the threads")
+    void restartTracksThreadCaches() throws Exception {
+        ObjectPool<Object> pool = new ObjectPool<>(Object::new, 0, 0).threadCacheSize(2);
+        for (int run = 0; run < 2; run++) {
+            pool.start();
+            pool.release(pool.acquire());
+            Assertions.assertEquals(1, pool.pooled());
+            pool.destroy();
+            Assertions.assertEquals(0, pool.pooled());
+        }
+        Assertions.assertEquals(pool.created(), pool.disposed());
+    }
+
+    @Test
+    @DisplayName("the objects cached by ended threads are disposed of")
+    void disposesCachesOfEndedThreads() throws Exception {
+        ObjectPool<Object> pool = new ObjectPool<>(Object::new, 0, 0).threadCacheSize(2);
+        pool.start();
+        Thread ended = new Thread(() -> pool.release(pool.acquire()));
+        ended.start();
+        ended.join();
+        Assertions.assertEquals(1, pool.pooled());
+
+        Thread next = new Thread(pool::acquire);
+        next.start();
+        next.join();
+
+        Assertions.assertEquals(0, pool.pooled());
+        Assertions.assertEquals(1, pool.disposed());
+        pool.destroy();
+    }
+
+    @Test
+    @DisplayName("direct buffers are freed when destroyed")
+    void freesDirectBuffers() throws Exception {
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(bean -> "direct".equals(bean.getName()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        long before = direct.getMemoryUsed();
+        ObjectPool<ByteBuffer> pool = ObjectPool.directBuffers(1 << 20, 8, 8);
+        pool.start();
+        Assertions.assertTrue(direct.getMemoryUsed() - before >= 8 << 20);
+
+        ByteBuffer buffer = pool.acquire();
+        buffer.putLong(42);
+        pool.release(buffer);
+        buffer = pool.acquire();
+        Assertions.assertEquals(0, buffer.position());
+        pool.release(buffer);
+
+        pool.destroy();
+        Assertions.assertTrue(direct.getMemoryUsed() - before < 1 << 20, "still used "
+                + (direct.getMemoryUsed() - before));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class SupervisorTest
+ *
+ * @author ytbean
+ * @date 2026/10/19 22:30
+ */
+@DisplayName("Supervisor Tests")
+public class SupervisorTest {
+
+    /**
+     * a component failing its first starts, and its suspensions when asked to
+     */
+    private static final class Flaky extends LifecycleAdapter {
+
+        private final AtomicInteger starts = new AtomicInteger();
+
+        private final int failingStarts;
+
+        private volatile boolean failSuspend;
+
+        private Flaky(int failingStarts) {
+            this.failingStarts = failingStarts;
+        }
+
+        @Override
+        protected void start0() throws LifecycleException {
+            if (starts.incrementAndGet() <= failingStarts) {
+                throw new LifecycleException("intendly sick");
+            }
+        }
+
+        @Override
+        protected void suspend0() throws LifecycleException {
+            if (failSuspend) {
+                throw new LifecycleException("intendly sick");
+            }
+        }
+    }
+
+    private static void awaitStarts(Flaky component, int starts) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (component.starts.get() < starts && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("one-for-one restarts the sick component only, with backoff")
+    void oneForOne() throws Exception {
+        Flaky flaky = new Flaky(2);
+        Flaky healthy = new Flaky(0);
+        Supervisor supervisor = new Supervisor(Supervisor.Strategy.ONE_FOR_ONE).supervise(flaky).supervise(healthy);
+        supervisor.setBackoff(1, 20, TimeUnit.MILLISECONDS);
+
+        supervisor.start();
+        Assertions.assertTrue(flaky.awaitState(LifeState.STARTED, 5, TimeUnit.SECONDS));
+        Assertions.assertEquals(3, flaky.starts.get());
+        Assertions.assertEquals(1, healthy.starts.get());
+        Assertions.assertEquals(LifeState.STARTED, supervisor.state());
+        Assertions.assertFalse(supervisor.hasGivenUp());
+
+        supervisor.destroy();
+        Assertions.assertEquals(LifeState.DESTROYED, flaky.state());
+        Assertions.assertEquals(LifeState.DESTROYED, healthy.state());
+    }
+
+    @Test
+    @DisplayName("one-for-all restarts every component when one gets sick")
+    void oneForAll() throws Exception {
+        Flaky first = new Flaky(0);
+        Flaky second = new Flaky(0);
+        Supervisor supervisor = new Supervisor(Supervisor.Strategy.ONE_FOR_ALL).supervise(first).supervise(second);
+        supervisor.setBackoff(1, 20, TimeUnit.MILLISECONDS);
+        supervisor.start();
+
+        second.failSuspend = true;
+        Assertions.assertThrows(LifecycleException.class, second::suspend);
+        second.failSuspend = false;
+        awaitStarts(first, 2);
+        Assertions.assertTrue(second.awaitState(LifeState.STARTED, 5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, first.starts.get());
+        Assertions.assertEquals(2, second.starts.get());
+        supervisor.destroy();
+    }
+
+    @Test
+    @DisplayName("the supervisor gives up beyond the restart intensity")
+    void restartIntensity() throws Exception {
+        Flaky broken = new Flaky(Integer.MAX_VALUE);
+        Supervisor supervisor = new Supervisor(Supervisor.Strategy.ONE_FOR_ONE).supervise(broken);
+        supervisor.setBackoff(1, 2, TimeUnit.MILLISECONDS);
+        supervisor.setRestartIntensity(3, 1, TimeUnit.MINUTES);
+
+        supervisor.start();
+        awaitStarts(broken, 4);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!supervisor.hasGivenUp() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Assertions.assertTrue(supervisor.hasGivenUp());
+        Assertions.assertEquals(4, broken.starts.get());
+        Assertions.assertEquals(LifeState.SICK, broken.state());
+        supervisor.destroy();
+    }
+
+    @Test
+    @DisplayName("a restart running while the supervisor is destroyed leaves no component started")
+    void destroyDuringRestart() throws Exception {
+        CountDownLatch restarting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger starts = new AtomicInteger();
+        LifecycleAdapter first = new LifecycleAdapter() {
+            @Override
+            protected void start0() {
+                //blocks the restart, and start() does not give up on interrupts
+                if (starts.incrementAndGet() == 2) {
+                    restarting.countDown();
+                    boolean interrupted = false;
+                    while (release.getCount() != 0) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        Flaky second = new Flaky(1);
+        Supervisor supervisor = new Supervisor(Supervisor.Strategy.ONE_FOR_ALL).supervise(first).supervise(second);
+        supervisor.setBackoff(1, 1, TimeUnit.MILLISECONDS);
+        supervisor.start();
+        Assertions.assertTrue(restarting.await(5, TimeUnit.SECONDS));
+
+        ExecutorService destroyer = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<LifeState> destroyed = supervisor.destroyAsync(destroyer);
+            Thread.sleep(50);
+            release.countDown();
+            Assertions.assertEquals(LifeState.DESTROYED, destroyed.get(5, TimeUnit.SECONDS));
+        } finally {
+            destroyer.shutdown();
+        }
+        Thread.sleep(50);
+        Assertions.assertEquals(LifeState.DESTROYED, first.state());
+        Assertions.assertEquals(LifeState.DESTROYED, second.state());
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class SwappableLifecycleTest
+ *
+ * @author ytbean
+ * @date 2026/10/20 04:00
+ */
+@DisplayName("Swappable lifecycle Tests")
+public class SwappableLifecycleTest {
+
+    @Test
+    @DisplayName("callers never see a component which is not started while it is swapped")
+    void swapsWithoutGap() throws Exception {
+        SwappableLifecycle<LifecycleAdapter> holder = new SwappableLifecycle<>(new LifecycleAdapter());
+        holder.start();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong calls = new AtomicLong();
+        AtomicInteger gaps = new AtomicInteger();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread caller = new Thread(() -> {
+                while (running.get()) {
+                    try (SwappableLifecycle.Lease<LifecycleAdapter> lease = holder.acquire()) {
+                        if (lease.get().state() != LifeState.STARTED) {
+                            gaps.incrementAndGet();
+                        }
+                        calls.incrementAndGet();
+                    } catch (LifecycleException e) {
+                        gaps.incrementAndGet();
+                    }
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+
+        List<CompletableFuture<LifecycleAdapter>> retired = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            retired.add(holder.swap(new LifecycleAdapter()));
+            Thread.sleep(5);
+        }
+        running.set(false);
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        List<LifecycleAdapter> replaced = new ArrayList<>();
+        for (CompletableFuture<LifecycleAdapter> future : retired) {
+            replaced.add(future.get(5, TimeUnit.SECONDS));
+        }
+
+        Assertions.assertEquals(0, gaps.get());
+        Assertions.assertTrue(calls.get() > 0);
+        Assertions.assertEquals(20, holder.swaps());
+        replaced.forEach(component -> Assertions.assertEquals(LifeState.DESTROYED, component.state()));
+        Assertions.assertEquals(LifeState.STARTED, holder.current().state());
+        holder.destroy();
+        Assertions.assertEquals(LifeState.DESTROYED, holder.current().state());
+    }
+
+    @Test
+    @DisplayName("the replaced component serves the leases given before the swap")
+    void replacedComponentWaitsForLeases() throws Exception {
+        LifecycleAdapter live = new LifecycleAdapter();
+        SwappableLifecycle<LifecycleAdapter> holder = new SwappableLifecycle<>(live);
+        holder.start();
+        LifecycleAdapter replacement = new LifecycleAdapter();
+
+        //the caller holding a lease may swap, the retirement waits in the background
+        SwappableLifecycle.Lease<LifecycleAdapter> lease = holder.acquire();
+        CompletableFuture<LifecycleAdapter> swap = holder.swap(replacement);
+        Assertions.assertSame(replacement, holder.current());
+        try (SwappableLifecycle.Lease<LifecycleAdapter> next = holder.acquire()) {
+            Assertions.assertSame(replacement, next.get());
+        }
+        Thread.sleep(50);
+        Assertions.assertFalse(swap.isDone());
+        Assertions.assertEquals(LifeState.STARTED, lease.get().state());
+
+        lease.close();
+        Assertions.assertSame(live, swap.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(LifeState.DESTROYED, live.state());
+        holder.destroy();
+    }
+
+    @Test
+    @DisplayName("a replacement failing to start leaves the live component in place")
+    void failedReplacementKeepsLiveComponent() throws Exception {
+        LifecycleAdapter live = new LifecycleAdapter();
+        SwappableLifecycle<LifecycleAdapter> holder = new SwappableLifecycle<>(live);
+        holder.start();
+        LifecycleAdapter broken = new LifecycleAdapter() {
+            @Override
+            protected void start0() throws LifecycleException {
+                throw new LifecycleException("intendly failing");
+            }
+        };
+
+        Assertions.assertThrows(LifecycleException.class, () -> holder.swap(broken));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> holder.swap(live));
+        //started elsewhere, left as it is
+        LifecycleAdapter running = new LifecycleAdapter();
+        running.start();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> holder.swap(running));
+        Assertions.assertEquals(LifeState.STARTED, running.state());
+
+        Assertions.assertSame(live, holder.current());
+        Assertions.assertEquals(LifeState.STARTED, live.state());
+        Assertions.assertEquals(0, holder.swaps());
+        holder.destroy();
+    }
+
+    @Test
+    @DisplayName("the held component follows the holder")
+    void followsHolder() throws Exception {
+        LifecycleAdapter live = new LifecycleAdapter();
+        SwappableLifecycle<LifecycleAdapter> holder = new SwappableLifecycle<>(live);
+        holder.start();
+        Assertions.assertEquals(LifeState.STARTED, live.state());
+
+        holder.suspend();
+        Assertions.assertEquals(LifeState.SUSPENDED, live.state());
+        Assertions.assertThrows(LifecycleException.class, holder::acquire);
+        Assertions.assertThrows(LifecycleException.class, () -> holder.swap(new LifecycleAdapter()));
+
+        holder.resume();
+        Assertions.assertEquals(LifeState.STARTED, live.state());
+        holder.destroy();
+        Assertions.assertEquals(LifeState.DESTROYED, live.state());
+    }
+}
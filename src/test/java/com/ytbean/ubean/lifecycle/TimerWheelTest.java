@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class TimerWheelTest
+ *
+ * @author ytbean
+ * @date 2026/10/20 02:00
+ */
+@DisplayName("Timer wheel Tests")
+public class TimerWheelTest {
+
+    @Test
+    @DisplayName("timeouts fire after their delay, further ones after several turns")
+    void firesAfterDelay() throws Exception {
+        TimerWheel wheel = new TimerWheel("wheel", 5, TimeUnit.MILLISECONDS, 8);
+        Assertions.assertEquals(8, wheel.ticksPerWheel());
+        wheel.start();
+        long started = System.nanoTime();
+        AtomicLong near = new AtomicLong();
+        AtomicLong far = new AtomicLong();
+        CountDownLatch fired = new CountDownLatch(2);
+        wheel.schedule(() -> {
+            near.set(System.nanoTime() - started);
+            fired.countDown();
+        }, 20, TimeUnit.MILLISECONDS);
+        //five turns of a 40ms wheel
+        wheel.schedule(() -> {
+            far.set(System.nanoTime() - started);
+            fired.countDown();
+        }, 200, TimeUnit.MILLISECONDS);
+
+        Assertions.assertTrue(fired.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(near.get() >= TimeUnit.MILLISECONDS.toNanos(20), near.get() + "ns");
+        Assertions.assertTrue(far.get() >= TimeUnit.MILLISECONDS.toNanos(200), far.get() + "ns");
+        Assertions.assertEquals(0, wheel.pending());
+        wheel.destroy();
+    }
+
+    @Test
+    @DisplayName("a cancelled timeout never fires")
+    void cancelledTimeoutDoesNotFire() throws Exception {
+        TimerWheel wheel = new TimerWheel("cancel");
+        wheel.start();
+        AtomicInteger fired = new AtomicInteger();
+        List<TimerWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            timeouts.add(wheel.schedule(fired::incrementAndGet, 50 + i % 50, TimeUnit.MILLISECONDS));
+        }
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            Assertions.assertTrue(timeouts.get(i).cancel());
+        }
+        Assertions.assertEquals(5_000, wheel.pending());
+
+        Thread.sleep(300);
+        Assertions.assertEquals(5_000, fired.get());
+        Assertions.assertTrue(timeouts.get(0).isCancelled());
+        Assertions.assertTrue(timeouts.get(1).isExpired());
+        Assertions.assertFalse(timeouts.get(1).cancel());
+        wheel.destroy();
+    }
+
+    @Test
+    @DisplayName("the clock stands still while suspended")
+    void suspendFreezesClock() throws Exception {
+        TimerWheel wheel = new TimerWheel("frozen");
+        AtomicInteger fired = new AtomicInteger();
+        //scheduled before start, the delay only runs once started
+        wheel.schedule(fired::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+        Thread.sleep(150);
+        wheel.start();
+        Thread.sleep(30);
+        wheel.suspend();
+
+        Thread.sleep(200);
+        Assertions.assertEquals(0, fired.get());
+
+        wheel.resume();
+        Thread.sleep(30);
+        Assertions.assertEquals(0, fired.get());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (fired.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Assertions.assertEquals(1, fired.get());
+        wheel.destroy();
+    }
+
+    @Test
+    @DisplayName("destroying cancels the pending timeouts")
+    void destroyCancelsPending() throws Exception {
+        TimerWheel wheel = new TimerWheel("destroyed");
+        wheel.start();
+        TimerWheel.Timeout timeout = wheel.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+
+        wheel.destroy();
+
+        Assertions.assertTrue(timeout.isCancelled());
+        Assertions.assertEquals(0, wheel.pending());
+        Assertions.assertThrows(RejectedExecutionException.class, () -> wheel.schedule(() -> {
+        }, 1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.lifecycle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class WarmUpTest
+ *
+ * @author ytbean
+ * @date 2026/10/19 23:00
+ */
+@DisplayName("Warm-up Tests")
+public class WarmUpTest {
+
+    @Test
+    @DisplayName("a component requiring a warm-up only becomes started once warmed up")
+    void warmingComesBeforeStarted() throws LifecycleException {
+        List<Integer> handled = new ArrayList<>();
+        List<String> observed = new ArrayList<>();
+        LifecycleAdapter lifecycle = new LifecycleAdapter() {
+            @Override
+            protected boolean warmupRequired() {
+                return true;
+            }
+
+            @Override
+            protected void warmup0() throws LifecycleException {
+                observed.add(state() + " admitting=" + guard().tryEnter());
+                WarmUp.Result result = WarmUp.replay(Arrays.asList(1, 2, 3), handled::add)
+                        .minIterations(10)
+                        .maxIterations(10)
+                        .window(4)
+                        .run();
+                observed.add("iterations=" + result.iterations());
+            }
+        };
+        List<LifeState> states = new ArrayList<>();
+        lifecycle.addLifeStateListener((oldState, newState) -> states.add(newState));
+
+        lifecycle.start();
+        Assertions.assertEquals(LifeState.STARTED, lifecycle.state());
+        Assertions.assertEquals(Arrays.asList(LifeState.INITIALIZING, LifeState.INITIALIZED, LifeState.STARTING,
+                LifeState.WARMING, LifeState.STARTED), states);
+        Assertions.assertEquals(Arrays.asList("WARMING admitting=false", "iterations=10"), observed);
+        Assertions.assertEquals(Arrays.asList(1, 2, 3, 1, 2, 3, 1, 2, 3, 1), handled);
+    }
+
+    @Test
+    @DisplayName("a failed warm-up makes the component sick")
+    void failedWarmupIsSick() {
+        LifecycleAdapter lifecycle = new LifecycleAdapter() {
+            @Override
+            protected boolean warmupRequired() {
+                return true;
+            }
+
+            @Override
+            protected void warmup0() throws LifecycleException {
+                WarmUp.of(() -> {
+                    throw new IllegalStateException("intendly failing");
+                }).run();
+            }
+        };
+        Assertions.assertThrows(LifecycleException.class, lifecycle::start);
+        Assertions.assertEquals(LifeState.SICK, lifecycle.state());
+    }
+
+    @Test
+    @DisplayName("a warm-up stops once the latency target is reached")
+    void latencyTarget() throws LifecycleException {
+        WarmUp.Result reached = WarmUp.of(() -> Math.sqrt(42))
+                .minIterations(300)
+                .maxIterations(1_000_000)
+                .latencyTarget(1, TimeUnit.SECONDS)
+                .run();
+        Assertions.assertTrue(reached.targetReached());
+        Assertions.assertEquals(300, reached.iterations());
+        Assertions.assertTrue(reached.latency(TimeUnit.NANOSECONDS) >= 0);
+
+        WarmUp.Result missed = WarmUp.of(() -> Math.sqrt(42))
+                .maxIterations(250)
+                .latencyTarget(0, TimeUnit.NANOSECONDS)
+                .run();
+        Assertions.assertFalse(missed.targetReached());
+        Assertions.assertEquals(250, missed.iterations());
+    }
+}
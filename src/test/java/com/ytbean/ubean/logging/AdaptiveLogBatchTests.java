@@ -0,0 +1,165 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class AdaptiveLogBatchTests
+ *
+ * @author ytbean
+ * @date 2026/10/19 13:50
+ */
+@DisplayName("Adaptive log batch Tests")
+public class AdaptiveLogBatchTests {
+
+    @Test
+    @DisplayName("a batch reaches the sink as one unit")
+    void batchReachesSinkAsOneUnit() {
+        List<List<AdaptiveLogEvent>> units = new ArrayList<>();
+        AdaptiveLogSink sink = new AdaptiveLogSink() {
+            @Override
+            public void accept(AdaptiveLogEvent event) {
+                Assertions.fail("events of a batch should not be delivered one by one");
+            }
+
+            @Override
+            public void acceptAll(List<AdaptiveLogEvent> events) {
+                units.add(events);
+            }
+        };
+        AdaptiveLogger logger = new SinkLoggerFactory(sink, AdaptiveLogLevel.INFO).newInstance("batch");
+
+        try (AdaptiveLogBatch batch = logger.batch()) {
+            for (int i = 0; i < 1000; i++) {
+                batch.info("record {}", i);
+                batch.debug("filtered out");
+            }
+            Assertions.assertEquals(1000, batch.size());
+        }
+
+        Assertions.assertEquals(1, units.size());
+        Assertions.assertEquals(1000, units.get(0).size());
+        Assertions.assertEquals("record 999", units.get(0).get(999).message());
+    }
+
+    @Test
+    @DisplayName("a batch written to a file sink ends up as consecutive lines")
+    void batchIsWrittenToFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("batch.log");
+        FileLogSink sink = new FileLogSink(file);
+        AdaptiveLogger logger = new SinkLoggerFactory(sink, AdaptiveLogLevel.INFO).newInstance("file");
+
+        try (AdaptiveLogBatch batch = logger.batch()) {
+            batch.info("first");
+            batch.warn("second");
+        }
+        sink.close();
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertTrue(lines.get(0).endsWith("[file] first"), lines.get(0));
+        Assertions.assertTrue(lines.get(1).contains("[WARN]"), lines.get(1));
+        Assertions.assertEquals(0, sink.failed());
+    }
+
+    @Test
+    @DisplayName("backends without a batch entry point get the events as they are logged, with their caller")
+    void slf4jBackendPassesThrough() {
+        Logger backend = (Logger) LoggerFactory.getLogger(AdaptiveLogBatchTests.class);
+        List<ILoggingEvent> logged = new CopyOnWriteArrayList<>();
+        List<StackTraceElement> callers = new CopyOnWriteArrayList<>();
+        //the caller data is computed from the stack of the logging thread, so it must be read while appending
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                logged.add(event);
+                callers.add(event.getCallerData()[0]);
+            }
+        };
+        appender.start();
+        backend.addAppender(appender);
+        try (AdaptiveLogBatch batch = AdaptiveLoggerFactory.getLogger(AdaptiveLogBatchTests.class).batch()) {
+            batch.info("passed {}", "through");
+            Assertions.assertEquals(0, batch.size());
+            Assertions.assertEquals(1, logged.size());
+        } finally {
+            backend.detachAppender(appender);
+        }
+
+        Assertions.assertEquals("passed through", logged.get(0).getFormattedMessage());
+        Assertions.assertEquals(Thread.currentThread().getName(), logged.get(0).getThreadName());
+        Assertions.assertEquals(AdaptiveLogBatchTests.class.getName(), callers.get(0).getClassName());
+        Assertions.assertEquals("slf4jBackendPassesThrough", callers.get(0).getMethodName());
+    }
+
+    @Test
+    @DisplayName("an async sink flush waits for the events submitted before it, not for the later ones")
+    void asyncFlushWaitsForSubmitted() throws Exception {
+        AtomicInteger delivered = new AtomicInteger();
+        AsyncLogSink sink = new AsyncLogSink(new AdaptiveLogSink() {
+            @Override
+            public void accept(AdaptiveLogEvent event) {
+                delivered.incrementAndGet();
+            }
+
+            @Override
+            public void acceptAll(List<AdaptiveLogEvent> events) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.addAndGet(events.size());
+            }
+        }, 1024);
+        AdaptiveLogger logger = new SinkLoggerFactory(sink, AdaptiveLogLevel.INFO).newInstance("async");
+        for (int i = 0; i < 100; i++) {
+            logger.info("before flush {}", i);
+        }
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Thread producer = new Thread(() -> {
+            while (producing.get()) {
+                logger.info("steady load");
+            }
+        });
+        producer.start();
+        try {
+            sink.flush();
+            Assertions.assertTrue(delivered.get() >= 100 - sink.dropped());
+        } finally {
+            producing.set(false);
+            producer.join();
+            sink.close();
+        }
+    }
+}
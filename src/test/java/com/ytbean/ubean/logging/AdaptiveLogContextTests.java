@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The class AdaptiveLogContextTests
+ *
+ * @author ytbean
+ * @date 2026/10/19 10:31
+ */
+@DisplayName("Adaptive log context Tests")
+public class AdaptiveLogContextTests {
+
+    @Test
+    @DisplayName("a context is never mutated by with/without")
+    void contextIsImmutable() {
+        AdaptiveLogContext base = AdaptiveLogContext.EMPTY.with("traceId", "t-1");
+        AdaptiveLogContext derived = base.with("tenant", "acme");
+
+        Assertions.assertEquals(1, base.size());
+        Assertions.assertNull(base.get("tenant"));
+        Assertions.assertEquals("acme", derived.get("tenant"));
+        Assertions.assertSame(base, base.with("traceId", "t-1"));
+        Assertions.assertEquals(base, derived.without("tenant"));
+        Assertions.assertSame(AdaptiveLogContext.EMPTY, base.without("traceId"));
+    }
+
+    @Test
+    @DisplayName("closing a scope restores the previous context")
+    void scopeRestoresPreviousContext() {
+        AdaptiveLogContext before = AdaptiveLogContext.current();
+        AdaptiveLogContext.Scope scope = AdaptiveLogContext.put("traceId", "t-2");
+        try {
+            Assertions.assertEquals("t-2", AdaptiveLogContext.current().get("traceId"));
+        } finally {
+            scope.close();
+        }
+        Assertions.assertSame(before, AdaptiveLogContext.current());
+    }
+
+    @Test
+    @DisplayName("the context is handed over to other threads by reference")
+    void contextIsHandedOverByReference() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        AdaptiveLogContext.Scope scope = AdaptiveLogContext.put("traceId", "t-3");
+        try {
+            AdaptiveLogContext snapshot = AdaptiveLogContext.current();
+            Future<?> future = pool.submit(AdaptiveLogContext.current().bind(() ->
+                    Assertions.assertSame(snapshot, AdaptiveLogContext.current())));
+            future.get();
+        } finally {
+            scope.close();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("async sinks capture the context of the calling thread")
+    void asyncSinkCapturesContext() {
+        List<AdaptiveLogEvent> events = new CopyOnWriteArrayList<>();
+        AsyncLogSink sink = new AsyncLogSink(events::add, 16);
+        AdaptiveLogger logger = new SinkLoggerFactory(sink, AdaptiveLogLevel.INFO).newInstance("context");
+
+        AdaptiveLogContext snapshot;
+        AdaptiveLogContext.Scope scope = AdaptiveLogContext.put("traceId", "t-4");
+        try {
+            snapshot = AdaptiveLogContext.current();
+            logger.info("hello {}", "world");
+            logger.debug("filtered out");
+        } finally {
+            scope.close();
+        }
+        sink.close();
+
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals("hello world", events.get(0).message());
+        Assertions.assertSame(snapshot, events.get(0).context());
+    }
+}
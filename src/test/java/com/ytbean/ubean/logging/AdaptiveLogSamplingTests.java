@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class AdaptiveLogSamplingTests
+ *
+ * @author ytbean
+ * @date 2026/10/19 11:48
+ */
+@DisplayName("Adaptive log sampling Tests")
+public class AdaptiveLogSamplingTests {
+
+    private final List<AdaptiveLogEvent> events = new CopyOnWriteArrayList<>();
+
+    private AdaptiveLogger sampledLogger(AdaptiveLogSamplingPolicy policy) {
+        SinkLoggerFactory factory = new SinkLoggerFactory(events::add, AdaptiveLogLevel.DEBUG);
+        return new SampledLogger(factory.newInstance("sampled"), policy);
+    }
+
+    @Test
+    @DisplayName("the ratio sampler keeps roughly the requested share of the requests")
+    void ratioSamplerKeepsRequestedShare() {
+        AdaptiveLogSampler sampler = AdaptiveLogSampler.ratio(0.01);
+        int sampled = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (sampler.sample("trace-" + i)) {
+                sampled++;
+            }
+        }
+        Assertions.assertTrue(sampled > 800 && sampled < 1200, "sampled " + sampled);
+    }
+
+    @Test
+    @DisplayName("unsampled requests only keep the logs at or above the unsampled level")
+    void unsampledRequestsOnlyKeepSevereLogs() {
+        AdaptiveLogger logger = sampledLogger(new AdaptiveLogSamplingPolicy(AdaptiveLogSampler.ratio(0),
+                AdaptiveLogLevel.WARN));
+        AdaptiveLogContext.Scope scope = AdaptiveLogContext.put("traceId", "dropped");
+        try {
+            Assertions.assertFalse(logger.isInfoEnabled());
+            logger.info("dropped");
+            logger.error("kept");
+        } finally {
+            scope.close();
+        }
+        logger.info("outside of any request");
+
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals("kept", events.get(0).message());
+        Assertions.assertEquals("outside of any request", events.get(1).message());
+    }
+
+    @Test
+    @DisplayName("the decision is taken once per trace id and shared across threads")
+    void decisionIsSharedAcrossThreads() throws Exception {
+        AtomicInteger asked = new AtomicInteger();
+        AdaptiveLogger logger = sampledLogger(new AdaptiveLogSamplingPolicy(traceId -> {
+            asked.incrementAndGet();
+            return true;
+        }, AdaptiveLogLevel.ERROR));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        AdaptiveLogContext.Scope scope = AdaptiveLogContext.put("traceId", "shared");
+        try {
+            logger.debug("on the caller");
+            pool.submit(AdaptiveLogContext.current().bind(() -> logger.debug("on the pool"))).get();
+            AdaptiveLogContext.current().with("user", "u-1").bind(() -> logger.debug("derived context")).run();
+        } finally {
+            scope.close();
+            pool.shutdown();
+        }
+
+        Assertions.assertEquals(3, events.size());
+        Assertions.assertEquals(1, asked.get());
+    }
+
+    @Test
+    @DisplayName("the policy is not asked about the levels the backend discards")
+    void disabledLevelSkipsPolicy() {
+        AtomicInteger asked = new AtomicInteger();
+        AdaptiveLogger logger = sampledLogger(new AdaptiveLogSamplingPolicy(traceId -> {
+            asked.incrementAndGet();
+            return true;
+        }, AdaptiveLogLevel.ERROR));
+
+        AdaptiveLogContext.current().with("traceId", "discarded").bind(() -> {
+            Assertions.assertFalse(logger.isTraceEnabled());
+            logger.trace("discarded");
+        }).run();
+
+        Assertions.assertEquals(0, events.size());
+        Assertions.assertEquals(0, asked.get());
+    }
+
+    @Test
+    @DisplayName("a policy set after a logger is created applies to it")
+    void laterPolicyApplies() {
+        SinkLoggerFactory factory = new SinkLoggerFactory(events::add, AdaptiveLogLevel.DEBUG);
+        AdaptiveLogger logger = new SampledLogger(factory.newInstance("late"));
+        AdaptiveLoggerFactory.setSamplingPolicy(new AdaptiveLogSamplingPolicy(AdaptiveLogSampler.ratio(0),
+                AdaptiveLogLevel.WARN));
+        AdaptiveLogContext.Scope scope = AdaptiveLogContext.put("traceId", "late");
+        try {
+            logger.info("dropped");
+            logger.warn("kept");
+        } finally {
+            scope.close();
+            AdaptiveLoggerFactory.setSamplingPolicy(null);
+        }
+
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals("kept", events.get(0).message());
+    }
+
+    @Test
+    @DisplayName("the caller location is the code calling the sampled logger")
+    void callerLocationSkipsWrapper() {
+        Logger backend = (Logger) LoggerFactory.getLogger("caller-location");
+        backend.setLevel(Level.DEBUG);
+        List<StackTraceElement> callers = new CopyOnWriteArrayList<>();
+        //the caller data is computed from the stack of the logging thread, so it must be read while appending
+        AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                callers.add(event.getCallerData()[0]);
+            }
+        };
+        appender.start();
+        backend.addAppender(appender);
+        try {
+            AdaptiveLoggerFactory.getLogger("caller-location").info("located");
+        } finally {
+            backend.detachAppender(appender);
+        }
+
+        Assertions.assertEquals(1, callers.size());
+        StackTraceElement caller = callers.get(0);
+        Assertions.assertEquals(AdaptiveLogSamplingTests.class.getName(), caller.getClassName());
+        Assertions.assertEquals("callerLocationSkipsWrapper", caller.getMethodName());
+    }
+}
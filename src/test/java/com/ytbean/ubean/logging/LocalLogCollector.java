@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class LocalLogCollector, an in-process stand-in for the node-local collector fed by {@link LogShippingSink}
+ *
+ * @author ytbean
+ * @date 2026/10/19 15:05
+ */
+final class LocalLogCollector implements AutoCloseable {
+
+    private final ServerSocketChannel server;
+
+    private final List<AdaptiveLogEvent> events = new CopyOnWriteArrayList<>();
+
+    private final List<Integer> frames = new CopyOnWriteArrayList<>();
+
+    private final Thread acceptor;
+
+    private volatile SocketChannel connection;
+
+    private LocalLogCollector(ServerSocketChannel server) {
+        this.server = server;
+        this.acceptor = new Thread(this::acceptLoop, "local-log-collector");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    static LocalLogCollector tcp() throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        return new LocalLogCollector(server);
+    }
+
+    static LocalLogCollector unix(Path path) throws IOException {
+        ServerSocketChannel server;
+        try {
+            server = (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class)
+                    .invoke(null, LogShippingSink.UnixSockets.family());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException(e);
+        }
+        server.bind(LogShippingSink.UnixSockets.address(path));
+        return new LocalLogCollector(server);
+    }
+
+    int port() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    List<AdaptiveLogEvent> events() {
+        return events;
+    }
+
+    /**
+     * get the number of events of each frame received so far
+     *
+     * @return the frame sizes
+     */
+    List<Integer> frames() {
+        return frames;
+    }
+
+    boolean awaitEvents(int count, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (events.size() < count) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    /**
+     * drop the current connection, as a restarting collector would
+     */
+    void disconnect() throws IOException {
+        SocketChannel current = connection;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        disconnect();
+    }
+
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try (SocketChannel channel = server.accept()) {
+                connection = channel;
+                while (true) {
+                    ByteBuffer length = read(channel, 4);
+                    ByteBuffer frame = read(channel, length.getInt());
+                    int count = frame.getInt();
+                    for (int i = 0; i < count; i++) {
+                        events.add(LogEventCodec.decode(frame));
+                    }
+                    frames.add(count);
+                }
+            } catch (IOException e) {
+                //connection or server closed
+            }
+        }
+    }
+
+    private static ByteBuffer read(SocketChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The class LogSegmentQueryTests
+ *
+ * @author ytbean
+ * @date 2026/10/19 16:55
+ */
+@DisplayName("Log segment query Tests")
+public class LogSegmentQueryTests {
+
+    private static final String[] LOGGERS = {"com.acme.Orders", "com.acme.Billing", "com.acme.Search"};
+
+    @Test
+    @DisplayName("a query only returns the matching events and skips the blocks ruled out by the index")
+    void queryUsesIndex(@TempDir Path dir) throws Exception {
+        SegmentLogSink sink = new SegmentLogSink(dir, "app", 16 * 1024, 512);
+        AdaptiveLogLevel[] levels = AdaptiveLogLevel.values();
+        List<AdaptiveLogEvent> written = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            AdaptiveLogEvent event = new AdaptiveLogEvent(1_000_000L + i * 100L, levels[i % levels.length],
+                    LOGGERS[i % LOGGERS.length], "worker", "event " + i, null, AdaptiveLogContext.EMPTY);
+            written.add(event);
+        }
+        sink.acceptAll(written);
+        sink.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            Assertions.assertTrue(files.filter(f -> f.toString().endsWith(".seg")).count() > 1,
+                    "segments should have been rolled over");
+        }
+
+        long from = 1_000_000L + 500 * 100L;
+        long to = 1_000_000L + 700 * 100L;
+        LogSegmentQuery query = new LogSegmentQuery(dir, "app").level(AdaptiveLogLevel.ERROR)
+                .logger("com.acme.Billing").between(from, to);
+        List<String> found = query.run().stream().map(AdaptiveLogEvent::message).collect(Collectors.toList());
+
+        List<String> expected = written.stream()
+                .filter(e -> e.level() == AdaptiveLogLevel.ERROR && "com.acme.Billing".equals(e.loggerName())
+                        && e.timestamp() >= from && e.timestamp() <= to)
+                .map(AdaptiveLogEvent::message)
+                .collect(Collectors.toList());
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected, found);
+
+        LogSegmentQuery everything = new LogSegmentQuery(dir, "app");
+        Assertions.assertEquals(2000, everything.run(e -> {
+        }));
+        Assertions.assertTrue(query.scannedBlocks() * 5 < everything.scannedBlocks(),
+                query.scannedBlocks() + " of " + everything.scannedBlocks() + " blocks scanned");
+        //the segments out of range are skipped and the first block in range is searched
+        Assertions.assertTrue(query.readEntries() * 2 < everything.readEntries(),
+                query.readEntries() + " of " + everything.readEntries() + " index entries read");
+    }
+
+    @Test
+    @DisplayName("a query only reads the segments of its own sink")
+    void queryIgnoresOtherSinks(@TempDir Path dir) throws Exception {
+        SegmentLogSink app = new SegmentLogSink(dir, "app", 16 * 1024, 512);
+        SegmentLogSink audit = new SegmentLogSink(dir, "app-audit", 16 * 1024, 512);
+        for (int i = 0; i < 10; i++) {
+            app.accept(new AdaptiveLogEvent(1_000_000L + i, AdaptiveLogLevel.INFO, LOGGERS[0], "worker",
+                    "app " + i, null, AdaptiveLogContext.EMPTY));
+            audit.accept(new AdaptiveLogEvent(1_000_000L + i, AdaptiveLogLevel.INFO, LOGGERS[0], "worker",
+                    "audit " + i, null, AdaptiveLogContext.EMPTY));
+        }
+        app.close();
+        audit.close();
+
+        Assertions.assertEquals(10, new LogSegmentQuery(dir, "app").run(e -> {
+        }));
+        Assertions.assertEquals(10, new LogSegmentQuery(dir, "app-audit").run(e -> {
+        }));
+        //a new sink goes on after its own last segment
+        SegmentLogSink reopened = new SegmentLogSink(dir, "app", 16 * 1024, 512);
+        reopened.close();
+        Assertions.assertTrue(Files.exists(dir.resolve("app-000002.seg")));
+    }
+
+    @Test
+    @DisplayName("the events logged after a failed roll over keep their logger names")
+    void failedRollKeepsLoggerNames(@TempDir Path dir) throws Exception {
+        SegmentLogSink sink = new SegmentLogSink(dir, "app", 512, 512);
+        //taken, so rolling over to the second segment fails
+        Files.createFile(dir.resolve(SegmentLogSink.fileName("app", 2, SegmentLogSink.SEGMENT_SUFFIX)));
+        List<AdaptiveLogEvent> written = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            AdaptiveLogEvent event = new AdaptiveLogEvent(1_000_000L + i, AdaptiveLogLevel.INFO,
+                    LOGGERS[i % LOGGERS.length], "worker", "event " + i, null, AdaptiveLogContext.EMPTY);
+            written.add(event);
+            sink.accept(event);
+        }
+        sink.close();
+
+        Assertions.assertTrue(Files.exists(dir.resolve(SegmentLogSink.fileName("app", 3,
+                SegmentLogSink.SEGMENT_SUFFIX))));
+        Assertions.assertEquals(0, sink.failed());
+        List<String> found = new LogSegmentQuery(dir, "app").logger(LOGGERS[1]).run().stream()
+                .map(AdaptiveLogEvent::message).collect(Collectors.toList());
+        List<String> expected = written.stream().filter(e -> LOGGERS[1].equals(e.loggerName()))
+                .map(AdaptiveLogEvent::message).collect(Collectors.toList());
+        Assertions.assertEquals(expected, found);
+    }
+}
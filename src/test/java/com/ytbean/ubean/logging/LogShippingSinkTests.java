@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2022 ytbean.com.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.ytbean.ubean.logging;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class LogShippingSinkTests
+ *
+ * @author ytbean
+ * @date 2026/10/19 15:20
+ */
+@DisplayName("Log shipping sink Tests")
+public class LogShippingSinkTests {
+
+    @Test
+    @DisplayName("an encoded event decodes to the same content")
+    void codecRoundTrip() {
+        AdaptiveLogEvent event = new AdaptiveLogEvent(42L, AdaptiveLogLevel.WARN, "codec", "main",
+                "héllo 世界 😀", new IllegalStateException("boom"),
+                AdaptiveLogContext.EMPTY.with("traceId", "t-1"));
+        ByteBuffer buffer = ByteBuffer.allocate(LogEventCodec.encodedLength(event));
+        LogEventCodec.encode(event, buffer);
+        Assertions.assertFalse(buffer.hasRemaining());
+        buffer.flip();
+
+        AdaptiveLogEvent decoded = LogEventCodec.decode(buffer);
+        Assertions.assertEquals(event.timestamp(), decoded.timestamp());
+        Assertions.assertEquals(event.level(), decoded.level());
+        Assertions.assertEquals(event.message(), decoded.message());
+        Assertions.assertEquals(event.context(), decoded.context());
+        Assertions.assertTrue(decoded.cause().getMessage().startsWith("java.lang.IllegalStateException: boom"));
+    }
+
+    @Test
+    @DisplayName("a batch is shipped over loopback TCP in length-prefixed frames")
+    void batchIsShippedOverTcp() throws Exception {
+        try (LocalLogCollector collector = LocalLogCollector.tcp()) {
+            LogShippingSink sink = new LogShippingSink(collector.port(), 1 << 16);
+            AdaptiveLogger logger = new SinkLoggerFactory(sink, AdaptiveLogLevel.INFO).newInstance("shipped");
+            try (AdaptiveLogBatch batch = logger.batch()) {
+                for (int i = 0; i < 100; i++) {
+                    batch.info("record {}", i);
+                }
+            }
+            Assertions.assertTrue(collector.awaitEvents(100, 5, TimeUnit.SECONDS));
+            sink.close();
+
+            Assertions.assertEquals("record 0", collector.events().get(0).message());
+            Assertions.assertEquals(100, collector.frames().get(0));
+            Assertions.assertEquals(100, sink.shipped());
+        }
+    }
+
+    @Test
+    @DisplayName("a flush returns once the events accepted before it are shipped")
+    void flushWaitsForShipping() throws Exception {
+        try (LocalLogCollector collector = LocalLogCollector.tcp()) {
+            LogShippingSink sink = new LogShippingSink(null, collector.port(), 1 << 16, 10, TimeUnit.SECONDS);
+            AdaptiveLogger logger = new SinkLoggerFactory(sink, AdaptiveLogLevel.INFO).newInstance("flushed");
+            for (int i = 0; i < 10; i++) {
+                logger.info("record {}", i);
+            }
+            sink.flush();
+            Assertions.assertEquals(10, sink.shipped());
+            sink.close();
+        }
+    }
+
+    @Test
+    @DisplayName("the sink reconnects when the collector drops the connection")
+    void sinkReconnects() throws Exception {
+        try (LocalLogCollector collector = LocalLogCollector.tcp()) {
+            LogShippingSink sink = new LogShippingSink(collector.port(), 1 << 16);
+            AdaptiveLogger logger = new SinkLoggerFactory(sink, AdaptiveLogLevel.INFO).newInstance("reconnect");
+            logger.info("before");
+            Assertions.assertTrue(collector.awaitEvents(1, 5, TimeUnit.SECONDS));
+
+            collector.disconnect();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (collector.events().stream().noneMatch(e -> "after".equals(e.message()))
+                    && System.nanoTime() < deadline) {
+                logger.info("after");
+                Thread.sleep(20);
+            }
+            sink.close();
+            Assertions.assertTrue(collector.events().stream().anyMatch(e -> "after".equals(e.message())));
+        }
+    }
+
+    @Test
+    @DisplayName("a Unix domain socket is used when the runtime supports it")
+    void eventsAreShippedOverUnixSocket(@TempDir Path dir) throws Exception {
+        Assumptions.assumeTrue(LogShippingSink.UnixSockets.SUPPORTED, "requires Java 16+");
+        Path socket = dir.resolve("collector.sock");
+        try (LocalLogCollector collector = LocalLogCollector.unix(socket)) {
+            LogShippingSink sink = new LogShippingSink(socket, -1, 1 << 16, 1, TimeUnit.MILLISECONDS);
+            new SinkLoggerFactory(sink, AdaptiveLogLevel.INFO).newInstance("unix").info("over unix");
+            Assertions.assertTrue(collector.awaitEvents(1, 5, TimeUnit.SECONDS));
+            sink.close();
+        }
+    }
+}